@@ -0,0 +1,84 @@
+package chess;
+
+/**
+ * Which pieces attack each square, for both teams, as made by
+ * {@link ChessGame#attackMap()}. A square counts as attacked whether it is
+ * empty or holds a piece of either team, so a team's own pieces show up as
+ * defended; pawns attack only diagonally.
+ * <p>
+ * The map is built in one pass over the pieces: each piece's attack set is
+ * looked up from the attack tables and the piece is recorded as an attacker
+ * of every square in it. After that, every query is a lookup. The map is
+ * immutable and does not follow later changes to the board.
+ */
+public final class AttackMap {
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    // Indexed [colour * 64 + square]: bitboard of that colour's pieces attacking the square
+    private final long[] attackers = new long[128];
+    private final long[] attackedSquares = new long[2];
+    private final int[] kingSquares = new int[2];
+
+    private AttackMap() {
+    }
+
+    static AttackMap of(ChessBoard board) {
+        AttackMap map = new AttackMap();
+        long occupied = board.getOccupancy();
+        for (int color = 0; color < 2; color++) {
+            map.kingSquares[color] = board.kingSquare(color);
+            for (int type = 0; type < PIECE_TYPE_COUNT; type++) {
+                long pieces = board.pieces(color, type);
+                while (pieces != 0) {
+                    int from = Long.numberOfTrailingZeros(pieces);
+                    long attacks = Bitboards.attacks(color, type, from, occupied);
+                    map.attackedSquares[color] |= attacks;
+                    while (attacks != 0) {
+                        map.attackers[color * 64 + Long.numberOfTrailingZeros(attacks)] |= 1L << from;
+                        attacks &= attacks - 1;
+                    }
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return bitboard of the squares holding the team's pieces that attack
+     * the position (see {@link ChessBoard} for the square numbering)
+     */
+    public long attackers(ChessGame.TeamColor color, ChessPosition position) {
+        return attackers[color.ordinal() * 64 + ChessBoard.square(position)];
+    }
+
+    /**
+     * @return how many of the team's pieces attack the position
+     */
+    public int attackCount(ChessGame.TeamColor color, ChessPosition position) {
+        return Long.bitCount(attackers(color, position));
+    }
+
+    /**
+     * @return whether any of the team's pieces attacks the position
+     */
+    public boolean isAttacked(ChessGame.TeamColor by, ChessPosition position) {
+        return attackers(by, position) != 0;
+    }
+
+    /**
+     * @return bitboard of every square the team attacks
+     */
+    public long attackedSquares(ChessGame.TeamColor color) {
+        return attackedSquares[color.ordinal()];
+    }
+
+    /**
+     * @return whether the team's king is attacked by the other team; false if
+     * it has no king
+     */
+    public boolean isInCheck(ChessGame.TeamColor color) {
+        int kingSquare = kingSquares[color.ordinal()];
+        return kingSquare < 64 && attackers[(color.ordinal() ^ 1) * 64 + kingSquare] != 0;
+    }
+}
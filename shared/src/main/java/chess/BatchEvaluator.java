@@ -0,0 +1,214 @@
+package chess;
+
+/**
+ * Evaluates whole {@link PositionBatch}es at once: attacked squares, mobility
+ * and whether the team to move is in check.
+ * <p>
+ * Every quantity is computed set-wise from the bitboards, with no per-piece
+ * loop or table lookup: pawn, knight and king attacks are shifts of the whole
+ * bitboard, and sliding attacks are Kogge-Stone fills (three shift-and-mask
+ * doubling steps per direction). Each shift is a rotation followed by a mask
+ * that drops the squares it wrapped onto, so one operation serves both
+ * directions. Only rotations, masks and bit counts are involved, so the same
+ * code runs on one position in a {@code long} or on several positions at once
+ * in the lanes of a {@code LongVector}.
+ * <p>
+ * When the {@code jdk.incubator.vector} module is present (the JVM was
+ * started with {@code --add-modules jdk.incubator.vector}), batches are
+ * processed in vector lanes and only the tail that does not fill a vector is
+ * handled one position at a time. Without the module, or with the system
+ * property {@code chess.batch.scalar=true}, everything runs on the scalar
+ * path, with identical results.
+ */
+public final class BatchEvaluator {
+    private static final long FILE_A = Bitboards.FILE_A;
+    private static final long FILE_B = FILE_A << 1;
+    private static final long FILE_G = FILE_A << 6;
+    private static final long FILE_H = Bitboards.FILE_H;
+    private static final long RANK_1 = Bitboards.RANK_1;
+    private static final long RANK_2 = RANK_1 << 8;
+    private static final long RANK_3 = RANK_1 << 16;
+    private static final long RANK_6 = RANK_1 << 40;
+    private static final long RANK_7 = RANK_1 << 48;
+    private static final long RANK_8 = RANK_1 << 56;
+
+    // Rook directions, then bishop directions; each mask drops the squares a rotation wraps onto
+    static final int[] SLIDER_SHIFTS = {8, -8, 1, -1, 9, 7, -7, -9};
+    static final long[] SLIDER_MASKS = {
+            ~RANK_1, ~RANK_8, ~FILE_A, ~FILE_H,
+            ~(FILE_A | RANK_1), ~(FILE_H | RANK_1), ~(FILE_A | RANK_8), ~(FILE_H | RANK_8)
+    };
+    static final int[] KNIGHT_SHIFTS = {17, 15, 10, 6, -6, -10, -15, -17};
+    static final long[] KNIGHT_MASKS = {
+            ~(FILE_A | RANK_1 | RANK_2), ~(FILE_H | RANK_1 | RANK_2),
+            ~(FILE_A | FILE_B | RANK_1), ~(FILE_G | FILE_H | RANK_1),
+            ~(FILE_A | FILE_B | RANK_8), ~(FILE_G | FILE_H | RANK_8),
+            ~(FILE_A | RANK_7 | RANK_8), ~(FILE_H | RANK_7 | RANK_8)
+    };
+    // Pawn capture directions for white, then black
+    static final int[] PAWN_SHIFTS = {9, 7, -7, -9};
+    static final long[] PAWN_MASKS = {~(FILE_A | RANK_1), ~(FILE_H | RANK_1), ~(FILE_A | RANK_8), ~(FILE_H | RANK_8)};
+
+    private static final boolean VECTORIZED = !Boolean.getBoolean("chess.batch.scalar")
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * @return whether batches are processed in vector lanes
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Finds every square the given team attacks, whether or not it holds a
+     * piece, in each position of the batch
+     *
+     * @param out receives one bitboard per position
+     */
+    public static void attacks(PositionBatch batch, ChessGame.TeamColor color, long[] out) {
+        int start = VECTORIZED ? VectorBatchKernel.attacks(batch.pieces, color.ordinal(), batch.size(), out) : 0;
+        for (int i = start; i < batch.size(); i++) {
+            out[i] = attacks(batch.pieces, color.ordinal(), i);
+        }
+    }
+
+    /**
+     * Counts the given team's pseudo-legal moves in each position of the
+     * batch: every square each piece could move to, ignoring whether the move
+     * leaves its king in check. A promotion counts once, and castling and
+     * en passant are not counted.
+     *
+     * @param out receives one count per position
+     */
+    public static void mobility(PositionBatch batch, ChessGame.TeamColor color, int[] out) {
+        int start = VECTORIZED ? VectorBatchKernel.mobility(batch.pieces, color.ordinal(), batch.size(), out) : 0;
+        for (int i = start; i < batch.size(); i++) {
+            out[i] = mobility(batch.pieces, color.ordinal(), i);
+        }
+    }
+
+    /**
+     * Determines for each position of the batch whether the team to move is
+     * in check. Like {@link ChessGame#isInCheck}, this casts each piece's
+     * attack pattern outward from the king and looks for enemy pieces of that
+     * type, rather than building the opponent's whole attack set.
+     *
+     * @param out receives one flag per position
+     */
+    public static void inCheck(PositionBatch batch, boolean[] out) {
+        int start = VECTORIZED ? VectorBatchKernel.inCheck(batch.pieces, batch.blackToMove, batch.size(), out) : 0;
+        for (int i = start; i < batch.size(); i++) {
+            out[i] = inCheck(batch.pieces, batch.blackToMove[i] != 0 ? 1 : 0, i);
+        }
+    }
+
+    private static long attacks(long[][] pieces, int color, int i) {
+        int base = color * 6;
+        long empty = ~occupancy(pieces, i);
+        long queens = pieces[base + ChessPiece.QUEEN][i];
+        long rooks = pieces[base + ChessPiece.ROOK][i] | queens;
+        long bishops = pieces[base + ChessPiece.BISHOP][i] | queens;
+        long knights = pieces[base + ChessPiece.KNIGHT][i];
+        long king = pieces[base + ChessPiece.KING][i];
+        long pawns = pieces[base + ChessPiece.PAWN][i];
+
+        long attacks = 0L;
+        for (int d = 0; d < 8; d++) {
+            attacks |= slide(d < 4 ? rooks : bishops, empty, SLIDER_SHIFTS[d], SLIDER_MASKS[d])
+                    | (shift(king, SLIDER_SHIFTS[d]) & SLIDER_MASKS[d])
+                    | (shift(knights, KNIGHT_SHIFTS[d]) & KNIGHT_MASKS[d]);
+        }
+        for (int d = color * 2; d < color * 2 + 2; d++) {
+            attacks |= shift(pawns, PAWN_SHIFTS[d]) & PAWN_MASKS[d];
+        }
+        return attacks;
+    }
+
+    private static boolean inCheck(long[][] pieces, int color, int i) {
+        int enemy = (color ^ 1) * 6;
+        long king = pieces[color * 6 + ChessPiece.KING][i];
+        long empty = ~occupancy(pieces, i);
+        long queens = pieces[enemy + ChessPiece.QUEEN][i];
+        long rooks = pieces[enemy + ChessPiece.ROOK][i] | queens;
+        long bishops = pieces[enemy + ChessPiece.BISHOP][i] | queens;
+
+        long checkers = 0L;
+        for (int d = 0; d < 8; d++) {
+            checkers |= (slide(king, empty, SLIDER_SHIFTS[d], SLIDER_MASKS[d]) & (d < 4 ? rooks : bishops))
+                    | (shift(king, KNIGHT_SHIFTS[d]) & KNIGHT_MASKS[d] & pieces[enemy + ChessPiece.KNIGHT][i]);
+        }
+        for (int d = color * 2; d < color * 2 + 2; d++) {
+            checkers |= shift(king, PAWN_SHIFTS[d]) & PAWN_MASKS[d] & pieces[enemy + ChessPiece.PAWN][i];
+        }
+        return checkers != 0;
+    }
+
+    /**
+     * Along one direction no two pieces of a set reach the same square (the
+     * rear one is blocked by the front one, and a plain shift is one-to-one),
+     * so counting each direction's targets separately counts every move once
+     */
+    private static int mobility(long[][] pieces, int color, int i) {
+        int base = color * 6;
+        long own = 0L;
+        long enemy = 0L;
+        for (int type = 0; type < 6; type++) {
+            own |= pieces[base + type][i];
+            enemy |= pieces[(base ^ 6) + type][i];
+        }
+        long empty = ~(own | enemy);
+        long queens = pieces[base + ChessPiece.QUEEN][i];
+        long rooks = pieces[base + ChessPiece.ROOK][i] | queens;
+        long bishops = pieces[base + ChessPiece.BISHOP][i] | queens;
+        long knights = pieces[base + ChessPiece.KNIGHT][i];
+        long king = pieces[base + ChessPiece.KING][i];
+        long pawns = pieces[base + ChessPiece.PAWN][i];
+
+        int count = 0;
+        for (int d = 0; d < 8; d++) {
+            count += Long.bitCount(slide(d < 4 ? rooks : bishops, empty, SLIDER_SHIFTS[d], SLIDER_MASKS[d]) & ~own)
+                    + Long.bitCount(shift(king, SLIDER_SHIFTS[d]) & SLIDER_MASKS[d] & ~own)
+                    + Long.bitCount(shift(knights, KNIGHT_SHIFTS[d]) & KNIGHT_MASKS[d] & ~own);
+        }
+        for (int d = color * 2; d < color * 2 + 2; d++) {
+            count += Long.bitCount(shift(pawns, PAWN_SHIFTS[d]) & PAWN_MASKS[d] & enemy);
+        }
+        int push = color == 0 ? 8 : -8;
+        long single = shift(pawns, push) & empty;
+        long twice = shift(single & (color == 0 ? RANK_3 : RANK_6), push) & empty;
+        return count + Long.bitCount(single) + Long.bitCount(twice);
+    }
+
+    private static long occupancy(long[][] pieces, int i) {
+        long occupied = 0L;
+        for (long[] bitboards : pieces) {
+            occupied |= bitboards[i];
+        }
+        return occupied;
+    }
+
+    /**
+     * @return the bitboard rotated by {@code shift} squares toward h8, or
+     * toward a1 if negative; the caller masks off the squares that wrapped
+     */
+    private static long shift(long bitboard, int shift) {
+        return Long.rotateLeft(bitboard, shift);
+    }
+
+    /**
+     * Kogge-Stone occluded fill: the squares the sliders reach in one
+     * direction through empty squares, plus the first blocker
+     */
+    private static long slide(long sliders, long empty, int shift, long mask) {
+        long propagate = empty & mask;
+        sliders |= propagate & shift(sliders, shift);
+        propagate &= shift(propagate, shift);
+        sliders |= propagate & shift(sliders, 2 * shift);
+        propagate &= shift(propagate, 2 * shift);
+        sliders |= propagate & shift(sliders, 4 * shift);
+        return shift(sliders, shift) & mask;
+    }
+}
@@ -0,0 +1,76 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a 64-entry mailbox for piece lookups alongside bitboards: one 64-bit
+ * occupancy word per piece type and colour, plus one word per colour and one
+ * for all occupied squares. Every query is a single array or field read, at
+ * the cost of updating four places on each placement and removal.
+ */
+final class BitboardRepresentation implements BoardRepresentation {
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    private final ChessPiece[] squares = new ChessPiece[64];
+    private final long[] pieceBitboards = new long[2 * PIECE_TYPE_COUNT];
+    private final long[] colorBitboards = new long[2];
+    private long occupied;
+
+    @Override
+    public ChessPiece pieceAt(int square) {
+        return squares[square];
+    }
+
+    @Override
+    public void place(int square, int index) {
+        long bit = 1L << square;
+        squares[square] = ChessPiece.of(index / PIECE_TYPE_COUNT, index % PIECE_TYPE_COUNT);
+        pieceBitboards[index] |= bit;
+        colorBitboards[index / PIECE_TYPE_COUNT] |= bit;
+        occupied |= bit;
+    }
+
+    @Override
+    public void remove(int square, int index) {
+        long mask = ~(1L << square);
+        squares[square] = null;
+        pieceBitboards[index] &= mask;
+        colorBitboards[index / PIECE_TYPE_COUNT] &= mask;
+        occupied &= mask;
+    }
+
+    @Override
+    public long pieces(int index) {
+        return pieceBitboards[index];
+    }
+
+    @Override
+    public long colorOccupancy(int color) {
+        return colorBitboards[color];
+    }
+
+    @Override
+    public long occupancy() {
+        return occupied;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(squares, null);
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        occupied = 0L;
+    }
+
+    @Override
+    public void copyInto(BoardRepresentation target) {
+        if (!(target instanceof BitboardRepresentation copy)) {
+            BoardRepresentation.super.copyInto(target);
+            return;
+        }
+        System.arraycopy(squares, 0, copy.squares, 0, 64);
+        System.arraycopy(pieceBitboards, 0, copy.pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(colorBitboards, 0, copy.colorBitboards, 0, 2);
+        copy.occupied = occupied;
+    }
+}
@@ -0,0 +1,264 @@
+package chess;
+
+/**
+ * Precomputed attack tables for every piece type, indexed by bitboard square
+ * (see {@link ChessBoard} for the square numbering).
+ * <p>
+ * Knight, king and pawn attacks do not depend on other pieces, so they are a
+ * plain per-square lookup. Rook and bishop attacks use magic bitboards: the
+ * blockers on a square's relevant rays are multiplied by a per-square magic
+ * number so that the top bits form a perfect index into that square's slice of
+ * a shared attack table. The magic numbers were found offline with a sparse
+ * random search and are bundled below; the tables are filled when the class
+ * loads.
+ */
+final class Bitboards {
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_8 = RANK_1 << 56;
+
+    private static final int[][] KNIGHT_DIRECTIONS = {{2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}, {1, -2}, {2, -1}};
+    private static final int[][] KING_DIRECTIONS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final long[] ROOK_MAGIC_NUMBERS = {
+            0xA080028098400120L, 0x00C0001009402000L, 0x010010200041000AL, 0x1080040800801000L,
+            0x2080080002040080L, 0x0B00040012080D00L, 0x0200010084080200L, 0x020000844C010022L,
+            0x0800802040008000L, 0x8141004000208100L, 0x1003002000410011L, 0x0009001000A10900L,
+            0x0200808008000400L, 0x0031000804008300L, 0x2144000802041001L, 0x0081001068820100L,
+            0x0080004000402000L, 0x0010004000200040L, 0x0010410020030810L, 0x1810004040080400L,
+            0x0008008004008008L, 0x0000080140100420L, 0x1001010100020004L, 0x400012000455088CL,
+            0x0080004040002010L, 0x1000400080802000L, 0x0003044500142000L, 0x0540240900100100L,
+            0x400C001101000800L, 0x0000200801044010L, 0x0408020400081001L, 0x2000090200088044L,
+            0x8000804004800028L, 0x0002010022004080L, 0x8802001086002241L, 0x0880082501001000L,
+            0x0000040082800800L, 0xA800040080800200L, 0x40A0300144008208L, 0x40088000C2800500L,
+            0x0800204001918000L, 0x5100410082020020L, 0x0C00100020008080L, 0x0810100009010020L,
+            0x280C080101110004L, 0x9060040002008080L, 0x0800281001340002L, 0x4008009C00420005L,
+            0x0840250880104100L, 0x0040004080200080L, 0x00100483B0200080L, 0x8044084200102200L,
+            0x0380040080080080L, 0x001C040002008080L, 0x0288022108300400L, 0x0000008054010200L,
+            0x0003084110218001L, 0x048140010822B083L, 0x2000120A40200101L, 0x0021210410000901L,
+            0x000200310824A002L, 0x5001009A28040005L, 0x801800B01102080CL, 0x20400407102080C2L
+    };
+    private static final long[] BISHOP_MAGIC_NUMBERS = {
+            0x1070024888008500L, 0x009290020A164202L, 0x001010808D001000L, 0x10280A04A9300000L,
+            0x04045040040A4482L, 0x0000900421104002L, 0x0200841402422800L, 0x0002420080884004L,
+            0x0000840404B40C00L, 0x0C0010900CA28088L, 0x000A084809022003L, 0x1400041062030210L,
+            0x0021040420010080L, 0x00000A0190080420L, 0xA600840108090440L, 0x8180021100880420L,
+            0x0520002408460860L, 0x121800041000C60BL, 0x401004C200220020L, 0x1010400824004000L,
+            0x2144021200A21010L, 0x081200090100C207L, 0x00040A0880882880L, 0x0052440202208421L,
+            0x0408200140044141L, 0x00A9249008100400L, 0x02440100C0820081L, 0x0820104088004040L,
+            0x8050040000802100L, 0x009043000202A200L, 0x0054040424422210L, 0x1304090008288201L,
+            0x1010088A28200201L, 0x0A52100408020881L, 0x0800404041081200L, 0x4401020080080082L,
+            0x0118020400001100L, 0x8002020409020080L, 0x0008080120084100L, 0x1024C10209004201L,
+            0x0020A22060001110L, 0x0132011082010814L, 0x0400220030011200L, 0x0800804010400200L,
+            0x2100280304000110L, 0x80401800AD000020L, 0x0420020081304A01L, 0x0001224400400100L,
+            0x8300610420200000L, 0x9100490401604000L, 0x0960814A08904002L, 0x0800080020880000L,
+            0x0040106052540060L, 0x0100092008408404L, 0xA088421002020A88L, 0x82301040AA808081L,
+            0x0002022404024880L, 0x1200110880842060L, 0x0000040042209000L, 0x0000A22000A09828L,
+            0x000300C420020480L, 0x0000214820082222L, 0x0100410288020080L, 0x01280A00CA040900L
+    };
+
+    private static final Magic[] ROOK_MAGICS = new Magic[64];
+    private static final Magic[] BISHOP_MAGICS = new Magic[64];
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    // Squares strictly between two squares on a shared rank, file or diagonal, and the full line through them
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_DIRECTIONS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_DIRECTIONS);
+
+            long bit = 1L << square;
+            PAWN_ATTACKS[0][square] = ((bit << 7) & ~FILE_H) | ((bit << 9) & ~FILE_A);
+            PAWN_ATTACKS[1][square] = ((bit >>> 9) & ~FILE_H) | ((bit >>> 7) & ~FILE_A);
+        }
+
+        ROOK_TABLE = buildMagicTable(ROOK_MAGICS, ROOK_MAGIC_NUMBERS, ROOK_DIRECTIONS);
+        BISHOP_TABLE = buildMagicTable(BISHOP_MAGICS, BISHOP_MAGIC_NUMBERS, BISHOP_DIRECTIONS);
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bitA = 1L << a;
+                long bitB = 1L << b;
+                if ((rookAttacks(a, 0L) & bitB) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, bitB) & rookAttacks(b, bitA);
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | bitA | bitB;
+                } else if ((bishopAttacks(a, 0L) & bitB) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, bitB) & bishopAttacks(b, bitA);
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | bitA | bitB;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given colour (0 = white, 1 = black) on
+     * {@code square} attacks diagonally
+     */
+    static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[ROOK_MAGICS[square].index(occupied)];
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[BISHOP_MAGICS[square].index(occupied)];
+    }
+
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares a piece of the given colour and type on
+     * {@code square} attacks, with sliders blocked by {@code occupied}
+     */
+    static long attacks(int color, int type, int square, long occupied) {
+        switch (type) {
+            case ChessPiece.KING:
+                return kingAttacks(square);
+            case ChessPiece.QUEEN:
+                return queenAttacks(square, occupied);
+            case ChessPiece.BISHOP:
+                return bishopAttacks(square, occupied);
+            case ChessPiece.KNIGHT:
+                return knightAttacks(square);
+            case ChessPiece.ROOK:
+                return rookAttacks(square, occupied);
+            default:
+                return pawnAttacks(color, square);
+        }
+    }
+
+    /**
+     * @return the squares strictly between two squares that share a rank, file
+     * or diagonal, or an empty bitboard if they share none
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal through both squares,
+     * or an empty bitboard if they share none
+     */
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    private static long stepAttacks(int square, int[][] directions) {
+        int row = square >>> 3;
+        int col = square & 7;
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int newRow = row + direction[0];
+            int newCol = col + direction[1];
+            if (onBoard(newRow, newCol)) {
+                attacks |= 1L << (newRow * 8 + newCol);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each ray from the square until it leaves the board or hits a
+     * blocker (the blocker itself is included). Only used to build the tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = square >>> 3;
+            int col = square & 7;
+            while (onBoard(row += direction[0], col += direction[1])) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    /**
+     * Fills one flat attack table for every square, enumerating each subset of
+     * the square's blocker mask (Carry-Rippler) and storing its attack set at
+     * the slot the magic number maps it to.
+     */
+    private static long[] buildMagicTable(Magic[] magics, long[] magicNumbers, int[][] directions) {
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            long mask = relevantMask(square, directions);
+            int bits = Long.bitCount(mask);
+            magics[square] = new Magic(mask, magicNumbers[square], 64 - bits, size);
+            size += 1 << bits;
+        }
+
+        long[] table = new long[size];
+        boolean[] filled = new boolean[size];
+        for (int square = 0; square < 64; square++) {
+            Magic magic = magics[square];
+            long subset = 0L;
+            do {
+                int index = magic.index(subset);
+                long attacks = slidingAttacks(square, subset, directions);
+                if (filled[index] && table[index] != attacks) {
+                    throw new IllegalStateException("Magic number collision on square " + square);
+                }
+                filled[index] = true;
+                table[index] = attacks;
+                subset = (subset - magic.mask()) & magic.mask();
+            } while (subset != 0);
+        }
+        return table;
+    }
+
+    /**
+     * Blockers on the last square of a ray never change the attack set, so
+     * the board edges are left out of the mask (except along the piece's
+     * own rank or file, where only the far ends are dropped).
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long rank = RANK_1 << (square & ~7);
+        long file = FILE_A << (square & 7);
+        long edges = ((RANK_1 | RANK_8) & ~rank) | ((FILE_A | FILE_H) & ~file);
+        return slidingAttacks(square, 0L, directions) & ~edges;
+    }
+
+    /**
+     * Per-square magic entry: the relevant blocker mask, the magic multiplier,
+     * the shift that keeps the index bits and this square's table offset.
+     */
+    private record Magic(long mask, long magic, int shift, int offset) {
+        int index(long occupied) {
+            return offset + (int) (((occupied & mask) * magic) >>> shift);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+/**
+ * How a {@link ChessBoard} stores its pieces. The board keeps its Zobrist key
+ * and version on top and delegates every placement, removal and lookup here,
+ * so move generation and evaluation run unchanged on any implementation.
+ * <p>
+ * Squares use the board's bitboard numbering (a1 = 0, h8 = 63), and pieces
+ * are indexed by {@code colour * 6 + type}, both by ordinal.
+ */
+interface BoardRepresentation {
+
+    /**
+     * @return the shared piece instance on the square, or null if it is empty
+     */
+    ChessPiece pieceAt(int square);
+
+    /**
+     * Puts a piece on an empty square
+     */
+    void place(int square, int index);
+
+    /**
+     * Takes the piece with the given index off its square
+     */
+    void remove(int square, int index);
+
+    /**
+     * @return bitboard of the squares holding the piece with the given index
+     */
+    long pieces(int index);
+
+    /**
+     * @return bitboard of the squares holding pieces of the given colour
+     */
+    long colorOccupancy(int color);
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    long occupancy();
+
+    /**
+     * @return square of the piece with the given index with the lowest number,
+     * or 64 if there is none
+     */
+    default int firstSquare(int index) {
+        return Long.numberOfTrailingZeros(pieces(index));
+    }
+
+    /**
+     * Removes every piece
+     */
+    void clear();
+
+    /**
+     * Replaces the target's pieces with this representation's. Implementations
+     * copy their arrays directly when the target is of their own kind; this
+     * default rebuilds the target one piece at a time.
+     */
+    default void copyInto(BoardRepresentation target) {
+        target.clear();
+        for (int index = 0; index < 2 * ChessPiece.PieceType.values().length; index++) {
+            long bits = pieces(index);
+            while (bits != 0) {
+                target.place(Long.numberOfTrailingZeros(bits), index);
+                bits &= bits - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * An immutable copy of a {@link ChessBoard}'s pieces, made with
+ * {@link ChessBoard#snapshot()}. It keeps only the twelve piece bitboards and
+ * the board's Zobrist key, so taking one copies 104 bytes regardless of how
+ * the board is used afterwards, and any number of threads can read it
+ * without locking or further copying.
+ * <p>
+ * {@link #hashCode()} is the Zobrist key, and {@link #equals(Object)} compares
+ * the keys before the fixed-size bitboards, so both take constant time.
+ */
+public final class BoardSnapshot {
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    private final long[] pieceBitboards;
+    private final long zobristKey;
+
+    BoardSnapshot(long[] pieceBitboards, long zobristKey) {
+        this.pieceBitboards = pieceBitboards;
+        this.zobristKey = zobristKey;
+    }
+
+    /**
+     * @return the piece at the position, or null if the square is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        long bit = 1L << ChessBoard.square(position);
+        for (int index = 0; index < pieceBitboards.length; index++) {
+            if ((pieceBitboards[index] & bit) != 0) {
+                return ChessPiece.of(index / PIECE_TYPE_COUNT, index % PIECE_TYPE_COUNT);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return bitboard of the squares holding pieces of the given colour and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[color.ordinal() * PIECE_TYPE_COUNT + type.ordinal()];
+    }
+
+    /**
+     * @return bitboard of the squares holding pieces of the given colour
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        long occupancy = 0L;
+        for (int type = 0; type < PIECE_TYPE_COUNT; type++) {
+            occupancy |= pieceBitboards[color.ordinal() * PIECE_TYPE_COUNT + type];
+        }
+        return occupancy;
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return getOccupancy(ChessGame.TeamColor.WHITE) | getOccupancy(ChessGame.TeamColor.BLACK);
+    }
+
+    /**
+     * @return the Zobrist key of the board the snapshot was taken from
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return a new mutable board holding the snapshot's pieces
+     */
+    public ChessBoard toBoard() {
+        return ChessBoard.fromBitboards(pieceBitboards);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof BoardSnapshot other)) return false;
+
+        return zobristKey == other.zobristKey && Arrays.equals(pieceBitboards, other.pieceBitboards);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+}
@@ -1,18 +1,88 @@
 package chess;
 
-import java.util.Arrays;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored by one of the representations in {@link Backend}, and
+ * queried as bitboards: 64-bit occupancy words in which bit {@code n} stands
+ * for square {@code n = (row - 1) * 8 + (column - 1)}, so a1 is bit 0 and h8
+ * is bit 63. New boards use {@link Backend#BITBOARD} unless the system
+ * property {@code chess.board.backend} names another backend, in any case;
+ * an unknown name is ignored.
+ * <p>
+ * The board also keeps a Zobrist key of its pieces (see {@link #zobristKey()})
+ * that every placement and removal updates with a single XOR. In JSON a board
+ * is written as its FEN piece placement (see {@link #toFen()}).
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoard.FenTypeAdapter.class)
 public class ChessBoard {
-    private final ChessPiece[][] board;
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+    private static final Backend DEFAULT_BACKEND = defaultBackend();
+
+    /**
+     * The ways a board can store its pieces
+     */
+    public enum Backend {
+        /**
+         * A piece mailbox plus one bitboard per piece, per colour and for the
+         * whole board: about 500 bytes, with every bitboard a single read
+         */
+        BITBOARD,
+        /**
+         * One byte per square and nothing else: about 130 bytes, but every
+         * bitboard is rebuilt by scanning the squares
+         */
+        MAILBOX
+    }
+
+    private final BoardRepresentation pieces;
+    private long zobristKey;
+    // Bumped on every change to the pieces, so cached results can tell the board has moved on
+    private transient int version;
 
     public ChessBoard() {
-        this.board = new ChessPiece[8][8];
+        this(DEFAULT_BACKEND);
+    }
+
+    /**
+     * Reads the backend named by {@code chess.board.backend}. An unknown name
+     * falls back to {@link Backend#BITBOARD} rather than failing the class's
+     * initialisation, which would make every later use of it fail too.
+     */
+    private static Backend defaultBackend() {
+        String name = System.getProperty("chess.board.backend", "bitboard");
+        try {
+            return Backend.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Backend.BITBOARD;
+        }
+    }
+
+    /**
+     * Creates an empty board that stores its pieces with the given backend
+     */
+    public ChessBoard(Backend backend) {
+        this.pieces = backend == Backend.MAILBOX ? new MailboxRepresentation() : new BitboardRepresentation();
+    }
+
+    /**
+     * @return how this board stores its pieces
+     */
+    public Backend getBackend() {
+        return this.pieces instanceof MailboxRepresentation ? Backend.MAILBOX : Backend.BITBOARD;
     }
 
     /**
@@ -20,20 +90,22 @@ public class ChessBoard {
      *
      * @param position where to add the piece to
      * @param piece    the piece to add
+     * @throws IllegalArgumentException if the position is off the board
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        this.board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        setPieceAt(square(position), piece);
     }
 
     /**
      * Gets a chess piece on the chessboard
      *
      * @param position The position to get the piece from
-     * @return Either the piece at the position, or null if no piece is at that
-     * position
+     * @return Either the shared piece instance at the position, or null if no
+     * piece is at that position
+     * @throws IllegalArgumentException if the position is off the board
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return this.board[position.getRow() - 1][position.getColumn() - 1];
+        return this.pieces.pieceAt(square(position));
     }
 
     /**
@@ -42,9 +114,9 @@ public class ChessBoard {
      */
     public void resetBoard() {
         // Clear the board first
-        for (int i = 0; i < 8; i++) {
-            Arrays.fill(this.board[i], null);
-        }
+        this.pieces.clear();
+        this.zobristKey = 0L;
+        this.version++;
 
         final int[] MAJOR_PIECE_POSITIONS = {1, 2, 3, 4, 5, 6, 7, 8};
 
@@ -61,26 +133,368 @@ public class ChessBoard {
                 ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
         };
         for (int j = 0; j < positions.length; j++) {
-            addPiece(new ChessPosition(row, positions[j]), new ChessPiece(teamColor, types[j]));
+            addPiece(ChessPosition.of(row, positions[j]), ChessPiece.of(teamColor, types[j]));
         }
     }
 
     private void setupPawns(int row, ChessGame.TeamColor color) {
         for (int col = 1; col <= 8; col++) {
-            addPiece(new ChessPosition(row, col), new ChessPiece(color, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(row, col), ChessPiece.of(color, ChessPiece.PieceType.PAWN));
+        }
+    }
+
+    /**
+     * @return bitboard of the squares holding pieces of the given colour and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return this.pieces.pieces(pieceIndex(color, type));
+    }
+
+    /**
+     * @return bitboard of the squares holding pieces of the given colour
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return this.pieces.colorOccupancy(color.ordinal());
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return this.pieces.occupancy();
+    }
+
+    /**
+     * Lists the squares holding pieces of the given colour, walking the
+     * colour's bitboard so that only occupied squares are visited.
+     *
+     * @return the shared positions of the colour's pieces, from a1 to h8
+     */
+    public List<ChessPosition> getPiecePositions(ChessGame.TeamColor color) {
+        long pieces = this.pieces.colorOccupancy(color.ordinal());
+        List<ChessPosition> positions = new ArrayList<>(Long.bitCount(pieces));
+        while (pieces != 0) {
+            positions.add(ChessPosition.ofSquare(Long.numberOfTrailingZeros(pieces)));
+            pieces &= pieces - 1;
+        }
+        return positions;
+    }
+
+    /**
+     * @return how many pieces of the given colour are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color) {
+        return Long.bitCount(this.pieces.colorOccupancy(color.ordinal()));
+    }
+
+    /**
+     * @return where the given colour's king stands, or null if it has none
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color.ordinal());
+        return square == 64 ? null : ChessPosition.ofSquare(square);
+    }
+
+    /**
+     * @return an independent board with the same pieces and backend, made by
+     * copying the backend's arrays rather than placing the pieces again
+     */
+    public ChessBoard copy() {
+        ChessBoard copy = new ChessBoard(getBackend());
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Overwrites another board with this board's pieces without allocating,
+     * so a worker can keep reusing one board. A target with a different
+     * backend keeps its backend and is refilled piece by piece.
+     *
+     * @param target the board to overwrite
+     */
+    public void copyInto(ChessBoard target) {
+        if (target == this) {
+            return;
+        }
+        this.pieces.copyInto(target.pieces);
+        target.zobristKey = this.zobristKey;
+        target.version++;
+    }
+
+    /**
+     * Takes an immutable copy of the board's pieces
+     *
+     * @return the snapshot, which later changes to this board do not affect
+     */
+    public BoardSnapshot snapshot() {
+        long[] pieceBitboards = new long[2 * PIECE_TYPE_COUNT];
+        for (int index = 0; index < pieceBitboards.length; index++) {
+            pieceBitboards[index] = this.pieces.pieces(index);
+        }
+        return new BoardSnapshot(pieceBitboards, this.zobristKey);
+    }
+
+    /**
+     * Builds a board from one bitboard per piece, indexed by colour * 6 + type
+     */
+    static ChessBoard fromBitboards(long[] pieceBitboards) {
+        ChessBoard board = new ChessBoard();
+        for (int index = 0; index < pieceBitboards.length; index++) {
+            long bits = pieceBitboards[index];
+            while (bits != 0) {
+                board.placePiece(Long.numberOfTrailingZeros(bits), index);
+                bits &= bits - 1;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Builds a board from the piece placement field of a FEN string, e.g.
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}. Anything after the
+     * first space (the rest of a full FEN record) is ignored.
+     *
+     * @param fen FEN piece placement, or a full FEN record
+     * @return the new board
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard fromFen(CharSequence fen) {
+        ChessBoard board = new ChessBoard();
+        board.readFenPlacement(fen, 0);
+        return board;
+    }
+
+    /**
+     * @return the piece placement field of this board's FEN record
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        appendFenPlacement(fen);
+        return fen.toString();
+    }
+
+    /**
+     * Parses a FEN piece placement into this (empty) board
+     *
+     * @param start index of the placement's first character
+     * @return index just past the placement
+     */
+    int readFenPlacement(CharSequence fen, int start) {
+        int index = start;
+        int rank = 7;
+        int file = 0;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            char c = fen.charAt(index++);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int type = ChessPiece.SYMBOLS.indexOf(Character.toLowerCase(c));
+                if (type < 0 || file > 7) {
+                    throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+                }
+                placePiece(rank * 8 + file, (Character.isUpperCase(c) ? 0 : PIECE_TYPE_COUNT) + type);
+                file++;
+            }
+            if (file > 8) {
+                throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+        }
+        return index;
+    }
+
+    void appendFenPlacement(StringBuilder fen) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                ChessPiece piece = this.pieces.pieceAt(rank * 8 + file);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char symbol = ChessPiece.SYMBOLS.charAt(piece.getPieceType().ordinal());
+                fen.append(piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(symbol) : symbol);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    /**
+     * Gets the 64-bit Zobrist key of the pieces on the board. It is kept up to
+     * date as pieces are added and removed, so reading it is O(1).
+     *
+     * @return the key, equal for any two boards with the same pieces on the same squares
+     */
+    public long zobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * @return a counter that changes whenever a piece is added to or removed
+     * from the board
+     */
+    int version() {
+        return this.version;
+    }
+
+    /**
+     * Converts a 1-based row and column into a bitboard square index
+     */
+    static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * Converts a position into a bitboard square index, checking that it is on
+     * the board rather than letting it wrap onto another square
+     *
+     * @throws IllegalArgumentException if the row or column is outside 1-8
+     */
+    static int square(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Position off the board: " + row + "," + col);
+        }
+        return square(row, col);
+    }
+
+    ChessPiece pieceAt(int square) {
+        return this.pieces.pieceAt(square);
+    }
+
+    /**
+     * Replaces whatever stands on the square with the given piece (or clears it
+     * when the piece is null), keeping every bitboard in sync
+     */
+    void setPieceAt(int square, ChessPiece piece) {
+        removePiece(square);
+        if (piece != null) {
+            placePiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
         }
     }
 
+    long pieces(int color, int type) {
+        return this.pieces.pieces(color * PIECE_TYPE_COUNT + type);
+    }
+
+    long colorOccupancy(int color) {
+        return this.pieces.colorOccupancy(color);
+    }
+
+    /**
+     * @return square of the given colour's king, or 64 if it has none
+     */
+    int kingSquare(int color) {
+        return this.pieces.firstSquare(color * PIECE_TYPE_COUNT + ChessPiece.KING);
+    }
+
+    /**
+     * Finds the attackers of a square by casting every piece's attack pattern
+     * outward from the square itself and intersecting each with the attacking
+     * side's pieces of that type.
+     *
+     * @param byColor  colour of the attacking side
+     * @param occupied occupancy the sliding attacks are blocked by
+     * @return bitboard of the attacking side's pieces that attack the square
+     */
+    long attackersTo(int square, int byColor, long occupied) {
+        long queens = pieces(byColor, ChessPiece.QUEEN);
+        return (Bitboards.pawnAttacks(byColor ^ 1, square) & pieces(byColor, ChessPiece.PAWN))
+                | (Bitboards.knightAttacks(square) & pieces(byColor, ChessPiece.KNIGHT))
+                | (Bitboards.kingAttacks(square) & pieces(byColor, ChessPiece.KING))
+                | (Bitboards.rookAttacks(square, occupied) & (pieces(byColor, ChessPiece.ROOK) | queens))
+                | (Bitboards.bishopAttacks(square, occupied) & (pieces(byColor, ChessPiece.BISHOP) | queens));
+    }
+
+    /**
+     * Unions the attack sets of every piece of one colour, looked up from the
+     * attack tables one piece at a time
+     *
+     * @param occupied occupancy the sliding attacks are blocked by
+     * @return bitboard of every square the colour attacks
+     */
+    long attackedSquares(int color, long occupied) {
+        long attacked = 0L;
+        for (int type = 0; type < PIECE_TYPE_COUNT; type++) {
+            long pieces = pieces(color, type);
+            while (pieces != 0) {
+                attacked |= Bitboards.attacks(color, type, Long.numberOfTrailingZeros(pieces), occupied);
+                pieces &= pieces - 1;
+            }
+        }
+        return attacked;
+    }
+
+    private void placePiece(int square, int index) {
+        this.pieces.place(square, index);
+        this.zobristKey ^= Zobrist.pieceSquare(index, square);
+        this.version++;
+    }
+
+    private void removePiece(int square) {
+        ChessPiece piece = this.pieces.pieceAt(square);
+        if (piece == null) {
+            return;
+        }
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        this.pieces.remove(square, index);
+        this.zobristKey ^= Zobrist.pieceSquare(index, square);
+        this.version++;
+    }
+
+    private static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPE_COUNT + type.ordinal();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof ChessBoard temp)) return false;
 
-        return Arrays.deepEquals(this.board, temp.board);
+        if (this.zobristKey != temp.zobristKey) return false;
+        for (int index = 0; index < 2 * PIECE_TYPE_COUNT; index++) {
+            if (this.pieces.pieces(index) != temp.pieces.pieces(index)) return false;
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(zobristKey);
+    }
+
+    /**
+     * Writes a board as its FEN piece placement and reads it back into a board
+     * with the default backend. Gson cannot build the board's representation
+     * on its own, since it is only known by its interface.
+     */
+    static final class FenTypeAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.value(board.toFen());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            return fromFen(in.nextString());
+        }
     }
 }
@@ -0,0 +1,118 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary encoding of boards and games, for storage and the wire.
+ * <p>
+ * A board is {@value #BOARD_BYTES} bytes: one 4-bit code per square in
+ * bitboard order (see {@link ChessBoard}), two squares per byte with the
+ * lower-numbered square in the low nibble. Code 0 is an empty square and
+ * codes 1 to 12 are {@code colour * 6 + type + 1}. A game is its board
+ * followed by the 8-byte packed game state (side to move, castling rights,
+ * en passant square and move counters), {@value #GAME_BYTES} bytes in all.
+ * <p>
+ * Encoding writes at the buffer's position and decoding reads from it, so
+ * several records can be streamed through one buffer back to back. Move
+ * history is not part of the encoding.
+ */
+public final class ChessCodec {
+    public static final int BOARD_BYTES = 32;
+    public static final int GAME_BYTES = BOARD_BYTES + Long.BYTES;
+
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    private ChessCodec() {
+    }
+
+    /**
+     * Writes the board's {@value #BOARD_BYTES} bytes at the buffer's position
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has too little room
+     */
+    public static void encode(ChessBoard board, ByteBuffer out) {
+        for (int square = 0; square < 64; square += 2) {
+            out.put((byte) (code(board.pieceAt(square)) | (code(board.pieceAt(square + 1)) << 4)));
+        }
+    }
+
+    /**
+     * Writes the game's {@value #GAME_BYTES} bytes at the buffer's position
+     *
+     * @throws java.nio.BufferOverflowException if the buffer has too little room
+     */
+    public static void encode(ChessGame game, ByteBuffer out) {
+        encode(game.getBoard(), out);
+        out.putLong(game.state());
+    }
+
+    /**
+     * @return the game's {@value #GAME_BYTES}-byte encoding
+     */
+    public static byte[] encode(ChessGame game) {
+        ByteBuffer out = ByteBuffer.allocate(GAME_BYTES);
+        encode(game, out);
+        return out.array();
+    }
+
+    /**
+     * Reads a board from the buffer's position
+     *
+     * @throws IllegalArgumentException          if a square holds an unknown code
+     * @throws java.nio.BufferUnderflowException if the buffer ends early
+     */
+    public static ChessBoard decodeBoard(ByteBuffer in) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int codes = in.get() & 0xFF;
+            board.setPieceAt(square, piece(codes & 0xF));
+            board.setPieceAt(square + 1, piece(codes >>> 4));
+        }
+        return board;
+    }
+
+    /**
+     * Reads a game from the buffer's position
+     *
+     * @throws IllegalArgumentException          if the record is malformed
+     * @throws java.nio.BufferUnderflowException if the buffer ends early
+     */
+    public static ChessGame decodeGame(ByteBuffer in) {
+        ChessBoard board = decodeBoard(in);
+        long state = in.getLong();
+        int enPassant = GameState.enPassant(state);
+        if (enPassant != GameState.NO_EN_PASSANT
+                && enPassant >>> 3 != GameState.enPassantRank(GameState.sideToMove(state))) {
+            throw new IllegalArgumentException("Invalid en passant square in game state: " + state);
+        }
+        return new ChessGame(board, state);
+    }
+
+    /**
+     * @return the game encoded in the array
+     * @throws IllegalArgumentException if the array is not a valid game record
+     */
+    public static ChessGame decodeGame(byte[] bytes) {
+        if (bytes.length != GAME_BYTES) {
+            throw new IllegalArgumentException("Expected " + GAME_BYTES + " bytes but got " + bytes.length);
+        }
+        return decodeGame(ByteBuffer.wrap(bytes));
+    }
+
+    private static int code(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        return piece.getTeamColor().ordinal() * PIECE_TYPE_COUNT + piece.getPieceType().ordinal() + 1;
+    }
+
+    private static ChessPiece piece(int code) {
+        if (code == 0) {
+            return null;
+        }
+        if (code > 2 * PIECE_TYPE_COUNT) {
+            throw new IllegalArgumentException("Invalid square code: " + code);
+        }
+        return ChessPiece.of((code - 1) / PIECE_TYPE_COUNT, (code - 1) % PIECE_TYPE_COUNT);
+    }
+}
@@ -1,31 +1,247 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
  * <p>
+ * The query methods ({@link #validMoves}, {@link #legalMoves()},
+ * {@link #isInCheck}, {@link #isInCheckmate}, {@link #isInStalemate},
+ * {@link #status()}, {@link #attackMap()}, the draw checks, {@link #zobristKey()} and
+ * {@link #toFen()}) never change the game or its board: moves are generated
+ * from the bitboards without being tried on the board, scratch buffers are
+ * per thread, and cached results are immutable and published through
+ * volatile fields. Any number of threads may therefore query a game at once
+ * without locking, as long as no thread is changing it at the same time.
+ * Moves, takebacks and board or turn changes still need exclusive access.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessGame {
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+    // Plies the undo stack holds before it first grows. Most games are short or sit idle, so it starts small.
+    private static final int UNDO_CAPACITY = 64;
+    // Plies between board checkpoints, so jumping to a ply replays at most this many moves
+    private static final int CHECKPOINT_INTERVAL = 16;
+    private static final int REDO_CAPACITY = 16;
+    // Undo records keep the captured piece's index plus one above the packed move
+    private static final int CAPTURED_SHIFT = 24;
+    private static final int MOVE_MASK = (1 << CAPTURED_SHIFT) - 1;
+
     private ChessBoard board;
-    private TeamColor currTeamColor;
+    // Side to move, castling rights, en passant square and move counters, packed by GameState
+    private long state;
+    // Per-thread scratch buffer for move generation, so queries allocate nothing and
+    // concurrent readers of one game never share it
+    private static final ThreadLocal<MoveList> SCRATCH_MOVES = ThreadLocal.withInitial(MoveList::new);
+    // Undo stack for make/unmake, one record per ply: the packed move with the piece it captured
+    // above it, and the state and position key before it.
+    // Making moves allocates nothing until the arrays fill up; then they double.
+    private transient int[] undoMoves;
+    private transient long[] undoStates;
+    private transient long[] undoKeys;
+    private transient int undoCount;
+    // Records of the moves taken back with undo(), the next one to redo on top. They only apply
+    // while the game is back at redoPly in the position with key redoKey, so searches that make
+    // and unmake moves from there leave them alone.
+    private transient int[] redoMoves = new int[REDO_CAPACITY];
+    private transient long[] redoStates = new long[REDO_CAPACITY];
+    private transient long[] redoKeys = new long[REDO_CAPACITY];
+    private transient int redoCount;
+    private transient int redoPly;
+    private transient long redoKey;
+    // Slot k holds the board at ply k * CHECKPOINT_INTERVAL of some line, saved by makeMove or
+    // redo, and the position key it was saved with; it is only used while that key matches
+    private transient ChessBoard[] checkpoints = new ChessBoard[4];
+    private transient long[] checkpointKeys = new long[4];
+    // The last status() result and the board, board version and state it was computed for
+    private transient volatile CachedStatus cachedStatus;
+    // The last attackMap() result and the board and board version it was built from
+    private transient volatile CachedAttackMap cachedAttackMap;
+    // Optional legal-move cache, possibly shared with other games
+    private transient volatile MoveCache moveCache;
 
     public ChessGame() {
-        this.board = new ChessBoard();
-        this.currTeamColor = TeamColor.WHITE;
+        this(new ChessBoard(), GameState.INITIAL);
         this.board.resetBoard();
     }
 
+    ChessGame(ChessBoard board, long state) {
+        this(board, state, UNDO_CAPACITY);
+    }
+
+    private ChessGame(ChessBoard board, long state, int undoCapacity) {
+        this.board = board;
+        this.state = state;
+        this.undoMoves = new int[undoCapacity];
+        this.undoStates = new long[undoCapacity];
+        this.undoKeys = new long[undoCapacity];
+    }
+
+    /**
+     * Creates a game from a FEN record, e.g.
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+     * The piece placement and side to move are required; the castling,
+     * en passant and move counter fields may be left off, in which case the
+     * game has no castling rights or en passant square and starts counting
+     * from move 1.
+     *
+     * @param fen the FEN record
+     * @return the new game
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int index = nextFenField(fen, board.readFenPlacement(fen, 0));
+
+        char side = index < fen.length() ? fen.charAt(index) : ' ';
+        if ((side != 'w' && side != 'b') || fenFieldEnd(fen, index) != index + 1) {
+            throw invalidFen(fen);
+        }
+        index = nextFenField(fen, index + 1);
+
+        // Optional castling availability
+        int castling = 0;
+        if (index < fen.length()) {
+            int end = fenFieldEnd(fen, index);
+            if (!(end == index + 1 && fen.charAt(index) == '-')) {
+                for (int i = index; i < end; i++) {
+                    int right = "KQkq".indexOf(fen.charAt(i));
+                    if (right < 0) {
+                        throw invalidFen(fen);
+                    }
+                    castling |= 1 << right;
+                }
+            }
+            index = nextFenField(fen, end);
+        }
+
+        // Optional en passant target square
+        int enPassant = GameState.NO_EN_PASSANT;
+        if (index < fen.length()) {
+            int end = fenFieldEnd(fen, index);
+            boolean none = end == index + 1 && fen.charAt(index) == '-';
+            // The square a pawn just skipped: rank 6 if white is to move, rank 3 if black is
+            boolean square = end == index + 2 && fen.charAt(index) >= 'a' && fen.charAt(index) <= 'h'
+                    && fen.charAt(index + 1) == (side == 'w' ? '6' : '3');
+            if (!none && !square) {
+                throw invalidFen(fen);
+            }
+            if (square) {
+                enPassant = ChessBoard.square(fen.charAt(index + 1) - '0', fen.charAt(index) - 'a' + 1);
+                // Kept only if a pawn can use it, as make() does
+                int mover = side == 'w' ? 0 : 1;
+                if ((Bitboards.pawnAttacks(mover ^ 1, enPassant) & board.pieces(mover, ChessPiece.PAWN)) == 0) {
+                    enPassant = GameState.NO_EN_PASSANT;
+                }
+            }
+            index = nextFenField(fen, end);
+        }
+
+        // Optional halfmove clock and fullmove number
+        int[] counters = {0, 1};
+        for (int counter = 0; counter < 2 && index < fen.length(); counter++) {
+            int end = fenFieldEnd(fen, index);
+            counters[counter] = parseFenNumber(fen, index, end);
+            index = nextFenField(fen, end);
+        }
+        if (index < fen.length()) {
+            throw invalidFen(fen);
+        }
+        return new ChessGame(board, GameState.of(side == 'w' ? 0 : 1, castling, enPassant, counters[0], counters[1]));
+    }
+
+    /**
+     * Writes the game as a FEN record
+     *
+     * @return the FEN record
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendFenPlacement(fen);
+        fen.append(GameState.sideToMove(state) == 0 ? " w " : " b ");
+
+        int castling = GameState.castling(state);
+        if (castling == 0) {
+            fen.append('-');
+        }
+        for (int right = 0; right < 4; right++) {
+            if ((castling & (1 << right)) != 0) {
+                fen.append("KQkq".charAt(right));
+            }
+        }
+
+        int enPassant = GameState.enPassant(state);
+        if (enPassant == GameState.NO_EN_PASSANT) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+        fen.append(' ').append(GameState.halfmoveClock(state)).append(' ').append(GameState.fullmoveNumber(state));
+        return fen.toString();
+    }
+
+    private static int fenFieldEnd(String fen, int start) {
+        int end = fen.indexOf(' ', start);
+        return end < 0 ? fen.length() : end;
+    }
+
+    /**
+     * Skips the single space between FEN fields (and any extra ones)
+     *
+     * @return index of the next field, or the length of the record at its end
+     */
+    private static int nextFenField(String fen, int index) {
+        if (index == fen.length()) {
+            return index;
+        }
+        if (fen.charAt(index) != ' ') {
+            throw invalidFen(fen);
+        }
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int parseFenNumber(String fen, int start, int end) {
+        if (start == end || end - start > 6) {
+            throw invalidFen(fen);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalidFen(fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalidFen(String fen) {
+        return new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+
+    /**
+     * @return the packed side to move, castling rights, en passant square and
+     * move counters (see {@link GameState})
+     */
+    long state() {
+        return this.state;
+    }
+
     /**
      * @return Which team's turn it is
      */
     public TeamColor getTeamTurn() {
-        return this.currTeamColor;
+        return GameState.sideToMove(this.state) == 0 ? TeamColor.WHITE : TeamColor.BLACK;
     }
 
     /**
@@ -34,7 +250,7 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
-        this.currTeamColor = team;
+        this.state = GameState.withSideToMove(this.state, team.ordinal());
     }
 
     /**
@@ -51,16 +267,73 @@ public class ChessGame {
             // Return empty collection if no piece at startPosition or if the piece does not belong to the current team
             return Collections.emptySet();
         }
-        Collection<ChessMove> potentialMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        for (ChessMove move : potentialMoves) {
-            if (simulateMove(move, piece.getTeamColor())) {
-                validMoves.add(move);
+        int square = ChessBoard.square(startPosition);
+        MoveCache cache = moveCache;
+        if (cache != null) {
+            // The key covers the pieces, turn, castling and en passant, which fix the answer
+            long key = zobristKey();
+            int[] moves = cache.get(key, square);
+            if (moves == null) {
+                MoveList candidateMoves = scratchMoves();
+                MoveGenerator.legalMoves(board, state, piece.getTeamColor().ordinal(), 1L << square, candidateMoves);
+                moves = candidateMoves.toArray();
+                cache.put(key, square, moves);
             }
+            return toChessMoves(moves, moves.length);
         }
+        MoveList candidateMoves = scratchMoves();
+        MoveGenerator.legalMoves(board, state, piece.getTeamColor().ordinal(), 1L << square, candidateMoves);
+        return toChessMoves(candidateMoves);
+    }
+
+    /**
+     * Makes {@link #validMoves} look moves up in the given cache before
+     * generating them, and store what it generates there. One cache can be
+     * shared by any number of games.
+     *
+     * @param moveCache the cache to use, or null to stop caching
+     */
+    public void setMoveCache(MoveCache moveCache) {
+        this.moveCache = moveCache;
+    }
+
+    /**
+     * Gets every legal move for the team whose turn it is
+     *
+     * @return the legal moves, empty if the team is checkmated or stalemated
+     */
+    public Collection<ChessMove> legalMoves() {
+        MoveList candidateMoves = scratchMoves();
+        legalMoves(candidateMoves);
+        return toChessMoves(candidateMoves);
+    }
+
+    /**
+     * Appends every legal move for the team whose turn it is to a reusable list
+     * of packed moves (see {@link PackedMove}), without allocating
+     *
+     * @param moves list the packed moves are appended to
+     */
+    public void legalMoves(MoveList moves) {
+        MoveGenerator.legalMoves(board, state, GameState.sideToMove(state), -1L, moves);
+    }
 
-        return validMoves;
+    private static MoveList scratchMoves() {
+        MoveList moves = SCRATCH_MOVES.get();
+        moves.clear();
+        return moves;
+    }
+
+    private static Collection<ChessMove> toChessMoves(MoveList moves) {
+        return toChessMoves(moves.array(), moves.size());
+    }
+
+    private static Collection<ChessMove> toChessMoves(int[] moves, int count) {
+        Collection<ChessMove> chessMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            chessMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+        return chessMoves;
     }
 
     /**
@@ -70,134 +343,416 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPosition startPosition = move.getStartPosition();
-        ChessPosition endPosition = move.getEndPosition();
-
         // Get the piece at the startPosition
-        ChessPiece piece = board.getPiece(startPosition);
-        if (piece == null || piece.getTeamColor() != currTeamColor) {
+        ChessPosition start = move.getStartPosition();
+        ChessPiece piece = isOnBoard(start) ? board.getPiece(start) : null;
+        if (piece == null || piece.getTeamColor() != getTeamTurn()) {
             throw new InvalidMoveException("No piece at the starting position and/or not your turn");
         }
 
-        // Check if the move is valid
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
-        if (!validMoves.contains(move)) {
+        // Check just this move, which also works out its castling and en passant flags
+        int packed = legalMove(move);
+        if (packed < 0) {
             throw new InvalidMoveException("Invalid move");
         }
+        // Playing the move that was taken back is the same as redoing it; any other starts a new line
+        if (canRedo() && (redoMoves[redoCount - 1] & MOVE_MASK) == packed) {
+            redo();
+            return;
+        }
+        redoCount = 0;
+        saveCheckpointIfDue();
+        // Execute the move (this also promotes pawns and passes the turn)
+        make(packed);
+    }
 
-        // Execute the move
-        board.addPiece(endPosition, piece);
-        board.addPiece(startPosition, null);
+    /**
+     * Determines if a move is legal for the team whose turn it is, without
+     * generating any other move: the piece must be able to reach the target
+     * square, and the move must not leave its own king in check
+     *
+     * @param move the move to check
+     * @return True if {@link #makeMove} would accept the move
+     */
+    public boolean isLegal(ChessMove move) {
+        return legalMove(move) >= 0;
+    }
 
-        // Pawn promotion logic
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && (endPosition.getRow() == 1 || endPosition.getRow() == 8)) {
-            piece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
-            board.addPiece(endPosition, piece);
+    /**
+     * @return the packed form of a legal move, or -1 if the move is not legal
+     */
+    private int legalMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        // Off-board rows and columns would wrap onto other squares once packed
+        if (!isOnBoard(start) || !isOnBoard(end)) {
+            return -1;
         }
+        ChessPiece.PieceType promotionPiece = move.getPromotionPiece();
+        return MoveGenerator.legalMove(board, state,
+                ChessBoard.square(start.getRow(), start.getColumn()), ChessBoard.square(end.getRow(), end.getColumn()),
+                promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+    }
 
-        // Update the current team's turn
-        currTeamColor = (currTeamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    private static boolean isOnBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
     }
 
     /**
-     * Determines if the given team is in check
+     * Plays a packed move (see {@link PackedMove}) without checking that it is
+     * legal, and records what is needed to take it back with {@link #unmake()}.
+     * The piece on the move's origin square moves, promotes if the move says
+     * so, takes its rook along when castling or the passed pawn when capturing
+     * en passant, and the turn passes to the other team. Castling rights, the
+     * en passant square and the move counters are updated to match.
+     * <p>
+     * The en passant square is only recorded when an enemy pawn stands ready
+     * to use it, so positions that differ only by an unusable en passant
+     * square compare and hash alike.
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @param move packed move for the piece on its origin square
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        // Find the king's position
-        ChessPosition kingPosition = findKingPosition(teamColor);
-
-        // Check if any of the opponent's pieces can move to the king's position
-        TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition currentPosition = new ChessPosition(row, col);
-                ChessPiece currentPiece = board.getPiece(currentPosition);
-
-                if (currentPiece != null && currentPiece.getTeamColor() == opponentColor) {
-                    Collection<ChessMove> moves = currentPiece.pieceMoves(board, currentPosition);
-                    for (ChessMove move : moves) {
-                        if (move.getEndPosition().equals(kingPosition)) {
-                            return true;
-                        }
-                    }
-                }
+    public void make(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+        int promotion = PackedMove.promotion(move);
+        ChessPiece piece = board.pieceAt(from);
+        int captureSquare = (flags & PackedMove.EN_PASSANT) != 0 ? (from & ~7) | (to & 7) : to;
+        ChessPiece captured = board.pieceAt(captureSquare);
+
+        if (undoCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoCount * 2);
+            undoStates = Arrays.copyOf(undoStates, undoCount * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoCount * 2);
+        }
+        undoMoves[undoCount] = move | (captured == null ? 0 : pieceCode(captured) << CAPTURED_SHIFT);
+        undoStates[undoCount] = state;
+        undoKeys[undoCount] = zobristKey();
+        undoCount++;
+
+        if (captureSquare != to) {
+            board.setPieceAt(captureSquare, null);
+        }
+        if ((flags & PackedMove.CASTLE) != 0) {
+            moveCastlingRook(from, to, false);
+        }
+        int color = piece.getTeamColor().ordinal();
+        boolean pawnMove = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        if (promotion != 0) {
+            piece = ChessPiece.of(color, promotion - 1);
+        }
+        board.setPieceAt(to, piece);
+        board.setPieceAt(from, null);
+
+        int enPassant = GameState.NO_EN_PASSANT;
+        if ((flags & PackedMove.DOUBLE_PUSH) != 0) {
+            int passed = (from + to) >>> 1;
+            if ((Bitboards.pawnAttacks(color, passed) & board.pieces(color ^ 1, ChessPiece.PAWN)) != 0) {
+                enPassant = passed;
             }
         }
+        int side = GameState.sideToMove(state);
+        state = GameState.of(side ^ 1,
+                GameState.castlingAfter(GameState.castling(state), from, to),
+                enPassant,
+                pawnMove || captured != null ? 0 : GameState.halfmoveClock(state) + 1,
+                GameState.fullmoveNumber(state) + side);
+    }
 
-        return false;
+    /**
+     * Takes back the most recent move played with {@link #make(int)} or
+     * {@link #makeMove(ChessMove)}, restoring the captured piece, any promoted
+     * pawn or castled rook, and the turn, castling rights, en passant square
+     * and move counters from before the move. Unlike {@link #undo()}, the
+     * move is not kept for {@link #redo()}, so searches can make and unmake
+     * moves without disturbing the moves waiting to be redone.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void unmake() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        undoCount--;
+        int record = undoMoves[undoCount];
+        int move = record & MOVE_MASK;
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int flags = PackedMove.flags(move);
+        ChessPiece piece = board.pieceAt(to);
+
+        if (PackedMove.promotion(move) != 0) {
+            piece = ChessPiece.of(piece.getTeamColor().ordinal(), ChessPiece.PAWN);
+        }
+        board.setPieceAt(from, piece);
+        board.setPieceAt(to, null);
+        int captureSquare = (flags & PackedMove.EN_PASSANT) != 0 ? (from & ~7) | (to & 7) : to;
+        int captured = record >>> CAPTURED_SHIFT;
+        if (captured != 0) {
+            board.setPieceAt(captureSquare, ChessPiece.of((captured - 1) / PIECE_TYPE_COUNT, (captured - 1) % PIECE_TYPE_COUNT));
+        }
+        if ((flags & PackedMove.CASTLE) != 0) {
+            moveCastlingRook(from, to, true);
+        }
+        state = undoStates[undoCount];
     }
 
-    private ChessPosition findKingPosition(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                    return position;
-                }
-            }
+    /**
+     * Takes back the most recent move, as {@link #unmake()} does, and keeps
+     * it so that {@link #redo()} can play it again
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undo() {
+        if (!canRedo()) {
+            redoCount = 0;
         }
-        return null;
+        unmake();
+        pushRedo(undoCount);
+        markRedoLine();
     }
 
     /**
-     * Determines if the given team is in checkmate
+     * Plays again the move most recently taken back with {@link #undo()}.
+     * Making any other move with {@link #makeMove(ChessMove)} instead drops
+     * the moves that could have been redone.
      *
-     * @param teamColor which team to check for checkmate
-     * @return True if the specified team is in checkmate
+     * @throws IllegalStateException if there is no move to redo
      */
-    public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false; // Not in checkmate if not in check
+    public void redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("No move to redo");
         }
+        redoCount--;
+        saveCheckpointIfDue();
+        make(redoMoves[redoCount] & MOVE_MASK);
+        markRedoLine();
+    }
+
+    /**
+     * @return whether there is a move to take back
+     */
+    public boolean canUndo() {
+        return undoCount > 0;
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition currentPosition = new ChessPosition(row, col);
-                ChessPiece currentPiece = board.getPiece(currentPosition);
+    /**
+     * @return whether there is a move to redo: one was taken back with
+     * {@link #undo()}, and the game is still in the position it left
+     */
+    public boolean canRedo() {
+        return redoCount > 0 && undoCount == redoPly && zobristKey() == redoKey;
+    }
 
-                if (currentPiece != null && currentPiece.getTeamColor() == teamColor) {
-                    if (canPieceEscapeCheck(currentPosition, currentPiece)) {
-                        return false; // Found at least one move to escape check
-                    }
-                }
-            }
+    /**
+     * @return how many moves have been played since the game was created or
+     * its board last set, i.e. the ply the game is at
+     */
+    public int getPly() {
+        return undoCount;
+    }
+
+    /**
+     * @return the moves played so far in order, followed by any that were
+     * taken back and can be redone
+     */
+    public List<ChessMove> getMoveHistory() {
+        int redoable = canRedo() ? redoCount : 0;
+        List<ChessMove> moves = new ArrayList<>(undoCount + redoable);
+        for (int ply = 0; ply < undoCount; ply++) {
+            moves.add(PackedMove.toChessMove(undoMoves[ply] & MOVE_MASK));
+        }
+        for (int i = redoable - 1; i >= 0; i--) {
+            moves.add(PackedMove.toChessMove(redoMoves[i] & MOVE_MASK));
         }
-        return true;
+        return moves;
     }
 
-    private boolean canPieceEscapeCheck(ChessPosition currentPosition, ChessPiece currentPiece) {
-        Collection<ChessMove> possibleMoves = currentPiece.pieceMoves(board, currentPosition);
-        for (ChessMove move : possibleMoves) {
-            if (simulateMove(move, currTeamColor)) {
-                return true;
+    /**
+     * Moves to any ply of the move history, from 0 (before its first move) to
+     * the end of the moves that can be redone. Moves played with
+     * {@link #makeMove(ChessMove)} or {@link #redo()} leave a board checkpoint
+     * every 16 plies; when the nearest one at or before the target is closer
+     * than the current ply, the board is restored from it and the undo
+     * records in between are moved across rather than replayed, so at most 16
+     * moves are played or taken back.
+     *
+     * @param ply number of the history's moves to have played
+     * @throws IllegalArgumentException if the history has no such ply
+     */
+    public void goToPly(int ply) {
+        if (!canRedo()) {
+            redoCount = 0;
+        }
+        if (ply < 0 || ply > undoCount + redoCount) {
+            throw new IllegalArgumentException("No ply " + ply + " in a history of " + (undoCount + redoCount) + " moves");
+        }
+        int checkpoint = ply / CHECKPOINT_INTERVAL;
+        while (checkpoint >= 0 && !hasCheckpoint(checkpoint)) {
+            checkpoint--;
+        }
+        int checkpointPly = checkpoint * CHECKPOINT_INTERVAL;
+        if (checkpoint >= 0 && ply - checkpointPly < Math.abs(ply - undoCount)) {
+            long checkpointState = stateAt(checkpointPly);
+            while (undoCount > checkpointPly) {
+                pushRedo(--undoCount);
+            }
+            while (undoCount < checkpointPly) {
+                popRedo();
             }
+            checkpoints[checkpoint].copyInto(board);
+            state = checkpointState;
+            markRedoLine();
+        }
+        while (undoCount > ply) {
+            undo();
+        }
+        while (undoCount < ply) {
+            redo();
         }
-        return false;
     }
 
-    private boolean simulateMove(ChessMove move, TeamColor teamColor) {
-        // Save current state
-        ChessPiece originalPieceAtEnd = board.getPiece(move.getEndPosition());
-        ChessPiece originalPieceAtStart = board.getPiece(move.getStartPosition());
+    /**
+     * Moves the undo record of a ply onto the redo stack
+     */
+    private void pushRedo(int ply) {
+        if (redoCount == redoMoves.length) {
+            redoMoves = Arrays.copyOf(redoMoves, redoCount * 2);
+            redoStates = Arrays.copyOf(redoStates, redoCount * 2);
+            redoKeys = Arrays.copyOf(redoKeys, redoCount * 2);
+        }
+        redoMoves[redoCount] = undoMoves[ply];
+        redoStates[redoCount] = undoStates[ply];
+        redoKeys[redoCount] = undoKeys[ply];
+        redoCount++;
+    }
 
-        // Perform the move
-        board.addPiece(move.getEndPosition(), originalPieceAtStart);
-        board.addPiece(move.getStartPosition(), null);
+    /**
+     * Moves the record on top of the redo stack back onto the undo stack,
+     * without playing its move
+     */
+    private void popRedo() {
+        if (undoCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoCount * 2);
+            undoStates = Arrays.copyOf(undoStates, undoCount * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoCount * 2);
+        }
+        redoCount--;
+        undoMoves[undoCount] = redoMoves[redoCount];
+        undoStates[undoCount] = redoStates[redoCount];
+        undoKeys[undoCount] = redoKeys[redoCount];
+        undoCount++;
+    }
 
-        // Check if move puts own king in check
-        boolean isInCheckAfterMove = isInCheck(teamColor);
+    /**
+     * Ties the redo stack to the current ply and position
+     */
+    private void markRedoLine() {
+        redoPly = undoCount;
+        redoKey = zobristKey();
+    }
 
-        // Revert the move
-        board.addPiece(move.getStartPosition(), originalPieceAtStart);
-        board.addPiece(move.getEndPosition(), originalPieceAtEnd);
+    /**
+     * @return the state at a ply of the current line, which must be no later
+     * than the last move that can be redone
+     */
+    private long stateAt(int ply) {
+        return ply < undoCount ? undoStates[ply]
+                : ply == undoCount ? state : redoStates[redoCount - 1 - (ply - undoCount)];
+    }
 
-        // Return true if move does not put own king in check
-        return !isInCheckAfterMove;
+    /**
+     * @return whether checkpoint slot k holds the board at ply
+     * {@code k * CHECKPOINT_INTERVAL} of the current line, judged by the
+     * position key the line has at that ply
+     */
+    private boolean hasCheckpoint(int k) {
+        if (k >= checkpoints.length || checkpoints[k] == null) {
+            return false;
+        }
+        int ply = k * CHECKPOINT_INTERVAL;
+        long key;
+        if (ply < undoCount) {
+            key = undoKeys[ply];
+        } else if (ply == undoCount) {
+            key = zobristKey();
+        } else if (ply - undoCount < redoCount && canRedo()) {
+            key = redoKeys[redoCount - 1 - (ply - undoCount)];
+        } else {
+            return false;
+        }
+        return checkpointKeys[k] == key;
+    }
+
+    /**
+     * Saves the board as a checkpoint when the game is at a checkpoint ply
+     * that has none for the current line. The slot's board is reused.
+     */
+    private void saveCheckpointIfDue() {
+        if (undoCount % CHECKPOINT_INTERVAL != 0) {
+            return;
+        }
+        int k = undoCount / CHECKPOINT_INTERVAL;
+        if (hasCheckpoint(k)) {
+            return;
+        }
+        if (k >= checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, Math.max(k + 1, checkpoints.length * 2));
+            checkpointKeys = Arrays.copyOf(checkpointKeys, checkpoints.length);
+        }
+        if (checkpoints[k] == null) {
+            checkpoints[k] = board.copy();
+        } else {
+            board.copyInto(checkpoints[k]);
+        }
+        checkpointKeys[k] = zobristKey();
+    }
+
+    private static int pieceCode(ChessPiece piece) {
+        return piece.getTeamColor().ordinal() * PIECE_TYPE_COUNT + piece.getPieceType().ordinal() + 1;
+    }
+
+    /**
+     * Moves the rook that castles alongside a king stepping from {@code from}
+     * to {@code to}, or puts it back in its corner
+     */
+    private void moveCastlingRook(int from, int to, boolean undo) {
+        int corner = to > from ? from + 3 : from - 4;
+        int inside = (from + to) >>> 1;
+        int rookFrom = undo ? inside : corner;
+        int rookTo = undo ? corner : inside;
+        board.setPieceAt(rookTo, board.pieceAt(rookFrom));
+        board.setPieceAt(rookFrom, null);
+    }
+
+    /**
+     * Determines if the given team is in check
+     *
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        int color = teamColor.ordinal();
+        int kingSquare = board.kingSquare(color);
+
+        // Look outward from the king for any opponent piece that attacks it
+        return kingSquare < 64 && board.attackersTo(kingSquare, color ^ 1, board.getOccupancy()) != 0;
+    }
+
+    /**
+     * Determines if the given team is in checkmate
+     *
+     * @param teamColor which team to check for checkmate
+     * @return True if the specified team is in checkmate
+     */
+    public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == getTeamTurn()) {
+            return status().checkmate();
+        }
+        // Checkmate is being in check with no legal move to escape it
+        return isInCheck(teamColor) && !hasLegalMove(teamColor);
     }
 
     /**
@@ -208,46 +763,97 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        // Can't be stalemate if someone is in check.
-        if (isInCheck(teamColor)) {
-            return false;
+        if (teamColor == getTeamTurn()) {
+            return status().stalemate();
         }
+        // Can't be stalemate if someone is in check.
+        return !isInCheck(teamColor) && !hasLegalMove(teamColor);
+    }
 
-        // Iterate over all pieces of the current player's team in order to find a possible move.
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition currentPosition = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(currentPosition);
-
-                // Skip if there's no piece or if the piece is not from the current player's team.
-                if (piece == null || piece.getTeamColor() != teamColor) {
-                    continue;
-                }
-
-                // Get all possible moves for this piece.
-                Collection<ChessMove> possibleMoves = piece.pieceMoves(board, currentPosition);
-
-                for (ChessMove move : possibleMoves) {
-                    // Simulate each move.
-                    ChessPiece targetPiece = board.getPiece(move.getEndPosition());
-                    // Execute the move temporarily.
-                    board.addPiece(move.getEndPosition(), piece);
-                    board.addPiece(currentPosition, null);
+    /**
+     * Works out check, checkmate, stalemate and the number of legal moves for
+     * the team whose turn it is, generating the legal moves only once. The
+     * result is cached and reused until the board's pieces or the game's
+     * state change, so asking again (or calling {@link #isInCheckmate} and
+     * {@link #isInStalemate} for the team to move) after the same move costs
+     * nothing.
+     *
+     * @return the status of the current position
+     */
+    public GameStatus status() {
+        CachedStatus cached = cachedStatus;
+        if (cached != null && cached.board() == board && cached.boardVersion() == board.version()
+                && cached.state() == state) {
+            return cached.status();
+        }
 
-                    boolean stillInCheckAfterMove = isInCheck(teamColor);
+        TeamColor teamTurn = getTeamTurn();
+        boolean inCheck = isInCheck(teamTurn);
+        MoveList candidateMoves = scratchMoves();
+        MoveGenerator.legalMoves(board, state, teamTurn.ordinal(), -1L, candidateMoves);
+        int legalMoveCount = candidateMoves.size();
+        GameStatus status = new GameStatus(teamTurn, inCheck, inCheck && legalMoveCount == 0,
+                !inCheck && legalMoveCount == 0, legalMoveCount);
+        cachedStatus = new CachedStatus(board, board.version(), state, status);
+        return status;
+    }
 
-                    // Undo the move.
-                    board.addPiece(currentPosition, piece);
-                    board.addPiece(move.getEndPosition(), targetPiece);
+    /**
+     * Works out which squares each team attacks and with which pieces, in one
+     * pass over the board. The map depends only on the pieces, so it is
+     * cached and reused until a piece is added, moved or removed.
+     *
+     * @return the attack map of the current board
+     */
+    public AttackMap attackMap() {
+        CachedAttackMap cached = cachedAttackMap;
+        if (cached != null && cached.board() == board && cached.boardVersion() == board.version()) {
+            return cached.attackMap();
+        }
+        AttackMap attackMap = AttackMap.of(board);
+        cachedAttackMap = new CachedAttackMap(board, board.version(), attackMap);
+        return attackMap;
+    }
 
-                    // If, after any move, the player is not in check, it's not a stalemate.
-                    if (!stillInCheckAfterMove) {
-                        return false;
-                    }
-                }
+    /**
+     * Determines if the current position has occurred at least twice before
+     * with the same team to move, castling rights and en passant square,
+     * which lets either player claim a draw.
+     * <p>
+     * Only positions since the last capture or pawn move can repeat, so the
+     * scan stops at the halfmove clock and visits every other ply; the cost
+     * does not grow with the length of the game. Positions from before the
+     * game was created or its board last set are not known.
+     *
+     * @return True if the position has occurred three times
+     */
+    public boolean isThreefoldRepetition() {
+        long key = zobristKey();
+        int limit = Math.min(GameState.halfmoveClock(state), undoCount);
+        int repeats = 0;
+        for (int ply = 4; ply <= limit; ply += 2) {
+            if (undoKeys[undoCount - ply] == key && ++repeats == 2) {
+                return true;
             }
         }
-        return true;
+        return false;
+    }
+
+    /**
+     * Determines if fifty moves by each team have passed without a capture or
+     * a pawn move, which lets either player claim a draw. Checkmate on the
+     * last of those moves still wins, so a checkmated position is not a draw.
+     *
+     * @return True if the fifty-move rule applies
+     */
+    public boolean isFiftyMoveDraw() {
+        return GameState.halfmoveClock(state) >= 100 && !isInCheckmate(getTeamTurn());
+    }
+
+    private boolean hasLegalMove(TeamColor teamColor) {
+        MoveList candidateMoves = scratchMoves();
+        MoveGenerator.legalMoves(board, state, teamColor.ordinal(), -1L, candidateMoves);
+        return !candidateMoves.isEmpty();
     }
 
     /**
@@ -266,6 +872,94 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        // A board set from outside has no history, so castling rights follow
+        // from kings and rooks on their home squares and the counters restart
+        this.state = GameState.of(GameState.sideToMove(state), GameState.castlingFromPieces(board),
+                GameState.NO_EN_PASSANT, 0, 1);
+        // Moves made on the previous board can no longer be taken back or redone
+        undoCount = 0;
+        redoCount = 0;
+    }
+
+    /**
+     * Makes an independent copy of the game, for example to hand to another
+     * thread: the board, the state, the move history used by
+     * {@link #unmake()}, {@link #redo()} and the repetition check, and the
+     * checkpoints used by {@link #goToPly(int)} are all copied, and the move
+     * cache, if any, is shared.
+     *
+     * @return the copy
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame(new ChessBoard(board.getBackend()), state,
+                Math.max(undoCount, UNDO_CAPACITY));
+        copyInto(copy);
+        return copy;
+    }
+
+    /**
+     * Overwrites another game with a copy of this one, as {@link #copy()}
+     * would make it, reusing the target's board, history arrays and checkpoint
+     * boards. Nothing is allocated unless the target's arrays are too short
+     * to hold this game's history or it has fewer checkpoint boards.
+     *
+     * @param target the game to overwrite
+     */
+    public void copyInto(ChessGame target) {
+        if (target == this) {
+            return;
+        }
+        board.copyInto(target.board);
+        target.state = state;
+        if (target.undoMoves.length < undoCount) {
+            target.undoMoves = new int[undoMoves.length];
+            target.undoStates = new long[undoMoves.length];
+            target.undoKeys = new long[undoMoves.length];
+        }
+        System.arraycopy(undoMoves, 0, target.undoMoves, 0, undoCount);
+        System.arraycopy(undoStates, 0, target.undoStates, 0, undoCount);
+        System.arraycopy(undoKeys, 0, target.undoKeys, 0, undoCount);
+        target.undoCount = undoCount;
+
+        if (target.redoMoves.length < redoCount) {
+            target.redoMoves = new int[redoMoves.length];
+            target.redoStates = new long[redoMoves.length];
+            target.redoKeys = new long[redoMoves.length];
+        }
+        System.arraycopy(redoMoves, 0, target.redoMoves, 0, redoCount);
+        System.arraycopy(redoStates, 0, target.redoStates, 0, redoCount);
+        System.arraycopy(redoKeys, 0, target.redoKeys, 0, redoCount);
+        target.redoCount = redoCount;
+        target.redoPly = redoPly;
+        target.redoKey = redoKey;
+
+        if (target.checkpoints.length < checkpoints.length) {
+            target.checkpoints = Arrays.copyOf(target.checkpoints, checkpoints.length);
+            target.checkpointKeys = Arrays.copyOf(target.checkpointKeys, checkpoints.length);
+        }
+        for (int k = 0; k < checkpoints.length; k++) {
+            if (checkpoints[k] == null) {
+                continue;
+            }
+            if (target.checkpoints[k] == null) {
+                target.checkpoints[k] = checkpoints[k].copy();
+            } else {
+                checkpoints[k].copyInto(target.checkpoints[k]);
+            }
+            target.checkpointKeys[k] = checkpointKeys[k];
+        }
+        target.moveCache = moveCache;
+    }
+
+    /**
+     * Gets the 64-bit Zobrist key of the position: the board's pieces, the
+     * team to move, castling rights and en passant file. The board keeps its
+     * part up to date on every move, so this is O(1).
+     *
+     * @return the position key
+     */
+    public long zobristKey() {
+        return board.zobristKey() ^ Zobrist.state(state);
     }
 
     @Override
@@ -274,12 +968,18 @@ public class ChessGame {
         if (obj == null || getClass() != obj.getClass()) return false;
 
         ChessGame chessGame = (ChessGame) obj;
-        return Objects.equals(board, chessGame.board) && currTeamColor == chessGame.currTeamColor;
+        return Objects.equals(board, chessGame.board) && state == chessGame.state;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currTeamColor);
+        return Long.hashCode(zobristKey());
+    }
+
+    private record CachedStatus(ChessBoard board, int boardVersion, long state, GameStatus status) {
+    }
+
+    private record CachedAttackMap(ChessBoard board, int boardVersion, AttackMap attackMap) {
     }
 
     /**
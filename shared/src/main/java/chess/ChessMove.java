@@ -5,10 +5,30 @@ import java.util.Objects;
 /**
  * Represents moving a chess piece on a chessboard
  * <p>
+ * Every combination of origin, target and promotion piece on the board is
+ * built once up front; {@link #of(ChessPosition, ChessPosition, ChessPiece.PieceType)}
+ * returns those shared instances.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessMove {
+    // Indexed by (from * 64 + to) * 7 + promotion, where promotion is 0 or PieceType.ordinal() + 1
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * 7];
+
+    static {
+        ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                int base = (from * 64 + to) * 7;
+                MOVES[base] = new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), null);
+                for (ChessPiece.PieceType type : types) {
+                    MOVES[base + type.ordinal() + 1] = new ChessMove(ChessPosition.ofSquare(from), ChessPosition.ofSquare(to), type);
+                }
+            }
+        }
+    }
+
     private final ChessPosition start;
     private final ChessPosition end;
     private final ChessPiece.PieceType promotionPiece;
@@ -19,6 +39,34 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared move for an origin, target and promotion piece
+     *
+     * @param promotionPiece the piece to promote to, or null if no promotion
+     * @return the canonical move instance, or a new move if either position is
+     * off the board
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {
+        if (!isOnBoard(startPosition) || !isOnBoard(endPosition)) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        int from = ChessBoard.square(startPosition.getRow(), startPosition.getColumn());
+        int to = ChessBoard.square(endPosition.getRow(), endPosition.getColumn());
+        return of(from, to, promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+    }
+
+    /**
+     * @param promotion 0 for no promotion, otherwise {@code PieceType.ordinal() + 1}
+     * @return the canonical move between two bitboard squares
+     */
+    static ChessMove of(int from, int to, int promotion) {
+        return MOVES[(from * 64 + to) * 7 + promotion];
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
+        return position.getRow() >= 1 && position.getRow() <= 8 && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -52,6 +100,6 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(start, end, promotionPiece);
+        return (31 * start.hashCode() + end.hashCode()) * 31 + Objects.hashCode(promotionPiece);
     }
 }
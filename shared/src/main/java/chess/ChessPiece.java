@@ -7,15 +7,33 @@ import java.util.Objects;
 /**
  * Represents a single chess piece
  * <p>
+ * Pieces are immutable, so {@link #of(ChessGame.TeamColor, PieceType)} hands
+ * out one shared instance per colour and type.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessPiece {
-    private static final int[][] KING_DIRECTIONS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
-    private static final int[][] QUEEN_DIRECTIONS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
-    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-    private static final int[][] KNIGHT_DIRECTIONS = {{2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}, {1, -2}, {2, -1}};
-    private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+    // PieceType ordinals, for the int-based board and move generation code
+    static final int KING = 0;
+    static final int QUEEN = 1;
+    static final int BISHOP = 2;
+    static final int KNIGHT = 3;
+    static final int ROOK = 4;
+    static final int PAWN = 5;
+    // Black FEN letter of each type, indexed by PieceType ordinal (white pieces are upper case)
+    static final String SYMBOLS = "kqbnrp";
+
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -24,6 +42,24 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared piece for a colour and type
+     *
+     * @return the canonical piece instance
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @param color {@code TeamColor.ordinal()}
+     * @param type  {@code PieceType.ordinal()}
+     * @return the canonical piece instance
+     */
+    static ChessPiece of(int color, int type) {
+        return PIECES[color * 6 + type];
+    }
+
     /**
      * @return Which team this chess piece belongs to
      */
@@ -46,188 +82,27 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new HashSet<>(); // Using Set to prevent duplicates
-
-        switch (this.getPieceType()) {
-            case KING:
-                addKingMoves(moves, board, myPosition);
-                break;
-            case QUEEN:
-                addQueenMoves(moves, board, myPosition);
-                break;
-            case BISHOP:
-                addBishopMoves(moves, board, myPosition);
-                break;
-            case KNIGHT:
-                addKnightMoves(moves, board, myPosition);
-                break;
-            case ROOK:
-                addRookMoves(moves, board, myPosition);
-                break;
-            case PAWN:
-                addPawnMoves(moves, board, myPosition);
-                break;
-        }
-
-        return moves;
-    }
-
-    private boolean isPositionValid(int row, int col) {
-        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
-    }
-
-    private boolean isValidMove(ChessPosition position, ChessBoard board) {
-        ChessPiece pieceAtPosition = board.getPiece(position);
-        return pieceAtPosition == null || pieceAtPosition.getTeamColor() != this.pieceColor;
-    }
-
-    private void addKingMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition) {
-        for (int i = 0; i < KING_DIRECTIONS.length; i++) {
-            int newRow = myPosition.getRow() + KING_DIRECTIONS[i][0];
-            int newCol = myPosition.getColumn() + KING_DIRECTIONS[i][1];
-
-            // Add the move if it's valid (either an empty square or capturing an opponent's piece)
-            if (isPositionValid(newRow, newCol)) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                if (isValidMove(newPosition, board)) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-            }
-        }
-    }
-
-    private void addQueenMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition) {
-        for (int[] direction : QUEEN_DIRECTIONS) {
-            int newRow = myPosition.getRow();
-            int newCol = myPosition.getColumn();
-
-            while (isPositionValid(newRow += direction[0], newCol += direction[1])) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-
-                // Add the move if it's valid (either an empty square or capturing an opponent's piece)
-                if (isValidMove(newPosition, board)) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-
-                // Break out of the loop if the square is not empty
-                if (pieceAtNewPosition != null) {
-                    break;
-                }
-            }
-        }
-    }
+        MoveList packedMoves = new MoveList();
+        pieceMoves(board, ChessBoard.square(myPosition), packedMoves);
 
-    private void addBishopMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition) {
-        for (int[] direction : BISHOP_DIRECTIONS) {
-            int newRow = myPosition.getRow();
-            int newCol = myPosition.getColumn();
-
-            while (isPositionValid(newRow += direction[0], newCol += direction[1])) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-
-                // Add the move if it's valid (either an empty square or capturing an opponent's piece)
-                if (isValidMove(newPosition, board)) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-
-                // Break out of the loop if the square is not empty
-                if (pieceAtNewPosition != null) {
-                    break;
-                }
-            }
-        }
-    }
-
-    private void addKnightMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition) {
-        for (int[] direction : KNIGHT_DIRECTIONS) {
-            int newRow = myPosition.getRow() + direction[0];
-            int newCol = myPosition.getColumn() + direction[1];
-
-            // Add the move if it's valid (either an empty square or capturing an opponent's piece)
-            if (isPositionValid(newRow, newCol)) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                if (isValidMove(newPosition, board)) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-            }
-        }
-    }
-
-    private void addRookMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition) {
-        for (int[] direction : ROOK_DIRECTIONS) {
-            int newRow = myPosition.getRow();
-            int newCol = myPosition.getColumn();
-
-            while (isPositionValid(newRow += direction[0], newCol += direction[1])) {
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-
-                // Add the move if it's valid (either an empty square or capturing an opponent's piece)
-                if (isValidMove(newPosition, board)) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-
-                // Break out of the loop if the square is not empty
-                if (pieceAtNewPosition != null) {
-                    break;
-                }
-            }
-        }
-    }
-
-    private void addPawnMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition) {
-        int direction = this.getTeamColor() == ChessGame.TeamColor.WHITE ? 1 : -1;
-        int startRow = this.getTeamColor() == ChessGame.TeamColor.WHITE ? 2 : 7;
-        int promotionRow = this.getTeamColor() == ChessGame.TeamColor.WHITE ? 8 : 1;
-
-        // Single forward move
-        handleForwardMove(moves, board, myPosition, direction, startRow, promotionRow);
-
-        // Capture moves
-        handleCaptureMoves(moves, board, myPosition, direction, promotionRow);
-    }
-
-    private void handleForwardMove(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition, int direction, int startRow, int promotionRow) {
-        int forwardRow = myPosition.getRow() + direction;
-        if (isPositionValid(forwardRow, myPosition.getColumn()) && board.getPiece(new ChessPosition(forwardRow, myPosition.getColumn())) == null) {
-            addMoveWithPromotion(moves, myPosition, forwardRow, myPosition.getColumn(), promotionRow);
-
-            // Two-square move from starting position
-            if (myPosition.getRow() == startRow) {
-                int twoForwardRow = forwardRow + direction;
-                if (isPositionValid(twoForwardRow, myPosition.getColumn()) && board.getPiece(new ChessPosition(twoForwardRow, myPosition.getColumn())) == null) {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(twoForwardRow, myPosition.getColumn()), null));
-                }
-            }
-        }
-    }
-
-    private void handleCaptureMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition myPosition, int direction, int promotionRow) {
-        int forwardRow = myPosition.getRow() + direction;
-        int[] captureCols = {myPosition.getColumn() - 1, myPosition.getColumn() + 1};
-        for (int captureCol : captureCols) {
-            if (isPositionValid(forwardRow, captureCol)) {
-                ChessPiece capturePiece = board.getPiece(new ChessPosition(forwardRow, captureCol));
-                if (capturePiece != null && capturePiece.getTeamColor() != this.getTeamColor()) {
-                    addMoveWithPromotion(moves, myPosition, forwardRow, captureCol, promotionRow);
-                }
-            }
+        Collection<ChessMove> moves = new HashSet<>(); // Callers compare the result as a Set
+        for (int i = 0; i < packedMoves.size(); i++) {
+            moves.add(PackedMove.toChessMove(packedMoves.get(i)));
         }
+        return moves;
     }
 
-    private void addMoveWithPromotion(Collection<ChessMove> moves, ChessPosition from, int toRow, int toCol, int promotionRow) {
-        ChessPosition toPosition = new ChessPosition(toRow, toCol);
-        if (toRow == promotionRow) {
-            // Promotion moves
-            for (PieceType promotionPiece : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP}) {
-                moves.add(new ChessMove(from, toPosition, promotionPiece));
-            }
-        } else {
-            // Regular move
-            moves.add(new ChessMove(from, toPosition, null));
-        }
+    /**
+     * Appends all the moves this piece could make from the given square to a
+     * reusable list of packed moves (see {@link PackedMove}). Like
+     * {@link #pieceMoves(ChessBoard, ChessPosition)}, this does not take into
+     * account moves that leave the king in danger, but it allocates nothing.
+     *
+     * @param square bitboard index of the piece's square
+     * @param moves  list the packed moves are appended to
+     */
+    public void pieceMoves(ChessBoard board, int square, MoveList moves) {
+        MoveGenerator.pieceMoves(board, square, this.pieceColor.ordinal(), this.type.ordinal(), moves);
     }
 
     @Override
@@ -240,7 +115,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return 31 * Objects.hashCode(pieceColor) + Objects.hashCode(type);
     }
 
     /**
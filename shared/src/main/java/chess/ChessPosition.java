@@ -1,14 +1,23 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
+ * There are only 64 squares, so {@link #of(int, int)} hands out shared
+ * instances instead of allocating a new position each time.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessPosition {
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            POSITIONS[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     private final int row;
     private final int col;
 
@@ -17,6 +26,27 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared position for a square on the board
+     *
+     * @param row 1-8, 1 codes for the bottom row
+     * @param col 1-8, 1 codes for the left column
+     * @return the canonical position instance
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Position off the board: " + row + "," + col);
+        }
+        return POSITIONS[ChessBoard.square(row, col)];
+    }
+
+    /**
+     * @return the canonical position for a bitboard square index
+     */
+    static ChessPosition ofSquare(int square) {
+        return POSITIONS[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -43,6 +73,6 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 }
@@ -0,0 +1,137 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Packs everything about a game that the board alone does not record into one
+ * {@code long}: the side to move, castling rights, the en passant target
+ * square and the halfmove and fullmove counters. A single word is cheap to
+ * copy, compare and push onto an undo stack, so taking a move back restores
+ * all of it with one assignment.
+ * <p>
+ * Layout, from the least significant bit: side to move (1 bit, 0 for white),
+ * castling rights (4 bits, see the {@code *_KINGSIDE} and {@code *_QUEENSIDE}
+ * constants), en passant square (7 bits, {@link #NO_EN_PASSANT} for none),
+ * halfmove clock (16 bits) and fullmove number (the remaining bits).
+ */
+final class GameState {
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 1 << 1;
+    static final int BLACK_KINGSIDE = 1 << 2;
+    static final int BLACK_QUEENSIDE = 1 << 3;
+    static final int ALL_CASTLING = 0xF;
+    static final int NO_EN_PASSANT = 64;
+
+    private static final int CASTLING_SHIFT = 1;
+    private static final int EN_PASSANT_SHIFT = 5;
+    private static final int HALFMOVE_SHIFT = 12;
+    private static final int FULLMOVE_SHIFT = 28;
+    private static final int HALFMOVE_MASK = 0xFFFF;
+
+    /**
+     * The state of a new game: white to move, every castling right, move 1
+     */
+    static final long INITIAL = of(0, ALL_CASTLING, NO_EN_PASSANT, 0, 1);
+
+    // Castling rights kept when a piece moves from or to each square
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+    }
+
+    private GameState() {
+    }
+
+    /**
+     * @param side      0 for white to move, 1 for black
+     * @param enPassant en passant target square, or {@link #NO_EN_PASSANT}
+     */
+    static long of(int side, int castling, int enPassant, int halfmoveClock, int fullmoveNumber) {
+        return side
+                | ((long) castling << CASTLING_SHIFT)
+                | ((long) enPassant << EN_PASSANT_SHIFT)
+                | ((long) Math.min(halfmoveClock, HALFMOVE_MASK) << HALFMOVE_SHIFT)
+                | ((long) fullmoveNumber << FULLMOVE_SHIFT);
+    }
+
+    static int sideToMove(long state) {
+        return (int) state & 1;
+    }
+
+    static int castling(long state) {
+        return (int) (state >>> CASTLING_SHIFT) & ALL_CASTLING;
+    }
+
+    /**
+     * @return the square a pawn may capture en passant onto, or {@link #NO_EN_PASSANT}
+     */
+    static int enPassant(long state) {
+        return (int) (state >>> EN_PASSANT_SHIFT) & 0x7F;
+    }
+
+    /**
+     * @return the rank, from 0, that an en passant target square lies on when
+     * the given side is to move: the sixth for white, the third for black
+     */
+    static int enPassantRank(int side) {
+        return side == 0 ? 5 : 2;
+    }
+
+    static int halfmoveClock(long state) {
+        return (int) (state >>> HALFMOVE_SHIFT) & HALFMOVE_MASK;
+    }
+
+    static int fullmoveNumber(long state) {
+        return (int) (state >>> FULLMOVE_SHIFT);
+    }
+
+    /**
+     * @return the state with the given side to move; handing the move to the
+     * other side also drops the en passant square, which only the side to move
+     * could have used
+     */
+    static long withSideToMove(long state, int side) {
+        if (sideToMove(state) == side) {
+            return state;
+        }
+        return (state & ~(1L | (0x7FL << EN_PASSANT_SHIFT))) | ((long) NO_EN_PASSANT << EN_PASSANT_SHIFT) | side;
+    }
+
+    /**
+     * @return the castling rights still held after a move from {@code from} to
+     * {@code to}: moving a king or rook, or capturing a rook on its home square,
+     * gives up the matching rights
+     */
+    static int castlingAfter(int castling, int from, int to) {
+        return castling & CASTLING_KEPT[from] & CASTLING_KEPT[to];
+    }
+
+    /**
+     * @return the castling rights implied by kings and rooks standing on their
+     * home squares
+     */
+    static int castlingFromPieces(ChessBoard board) {
+        int castling = 0;
+        for (int color = 0; color < 2; color++) {
+            int homeRank = color * 56;
+            if ((board.pieces(color, ChessPiece.KING) & (1L << (homeRank + 4))) == 0) {
+                continue;
+            }
+            long rooks = board.pieces(color, ChessPiece.ROOK);
+            if ((rooks & (1L << (homeRank + 7))) != 0) {
+                castling |= WHITE_KINGSIDE << (color * 2);
+            }
+            if ((rooks & (1L << homeRank)) != 0) {
+                castling |= WHITE_QUEENSIDE << (color * 2);
+            }
+        }
+        return castling;
+    }
+}
@@ -0,0 +1,15 @@
+package chess;
+
+/**
+ * The outcome-relevant facts about a position for the team whose turn it is,
+ * as computed together by {@link ChessGame#status()}
+ *
+ * @param teamTurn       the team to move
+ * @param inCheck        whether that team's king is attacked
+ * @param checkmate      whether that team is in check with no legal move
+ * @param stalemate      whether that team is not in check but has no legal move
+ * @param legalMoveCount how many legal moves that team has
+ */
+public record GameStatus(ChessGame.TeamColor teamTurn, boolean inCheck, boolean checkmate, boolean stalemate,
+                         int legalMoveCount) {
+}
@@ -0,0 +1,93 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Keeps nothing but one byte per square: 0 for an empty square, otherwise
+ * the piece index plus one. Placing and removing a piece writes one byte,
+ * but every bitboard query scans all 64 squares, so this trades move
+ * generation speed for a board a fraction of the size of
+ * {@link BitboardRepresentation}.
+ */
+final class MailboxRepresentation implements BoardRepresentation {
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    private final byte[] squares = new byte[64];
+
+    @Override
+    public ChessPiece pieceAt(int square) {
+        int code = squares[square] - 1;
+        return code < 0 ? null : ChessPiece.of(code / PIECE_TYPE_COUNT, code % PIECE_TYPE_COUNT);
+    }
+
+    @Override
+    public void place(int square, int index) {
+        squares[square] = (byte) (index + 1);
+    }
+
+    @Override
+    public void remove(int square, int index) {
+        squares[square] = 0;
+    }
+
+    @Override
+    public long pieces(int index) {
+        byte code = (byte) (index + 1);
+        long bits = 0L;
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] == code) {
+                bits |= 1L << square;
+            }
+        }
+        return bits;
+    }
+
+    @Override
+    public long colorOccupancy(int color) {
+        // White's codes are 1-6 and black's 7-12
+        int low = color * PIECE_TYPE_COUNT;
+        long bits = 0L;
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] > low && squares[square] <= low + PIECE_TYPE_COUNT) {
+                bits |= 1L << square;
+            }
+        }
+        return bits;
+    }
+
+    @Override
+    public long occupancy() {
+        long bits = 0L;
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] != 0) {
+                bits |= 1L << square;
+            }
+        }
+        return bits;
+    }
+
+    @Override
+    public int firstSquare(int index) {
+        byte code = (byte) (index + 1);
+        for (int square = 0; square < 64; square++) {
+            if (squares[square] == code) {
+                return square;
+            }
+        }
+        return 64;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(squares, (byte) 0);
+    }
+
+    @Override
+    public void copyInto(BoardRepresentation target) {
+        if (!(target instanceof MailboxRepresentation copy)) {
+            BoardRepresentation.super.copyInto(target);
+            return;
+        }
+        System.arraycopy(squares, 0, copy.squares, 0, 64);
+    }
+}
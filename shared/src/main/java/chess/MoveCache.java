@@ -0,0 +1,146 @@
+package chess;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of legal moves that any number of games and threads can
+ * share, keyed by a game's Zobrist key (see {@link ChessGame#zobristKey()})
+ * plus the square the moves start from. Games use it once it is attached with
+ * {@link ChessGame#setMoveCache(MoveCache)}.
+ * <p>
+ * The cache is 4-way set-associative: a key can only live in the four slots
+ * of the set it hashes to, so a lookup reads at most four entries. When a set
+ * is full, CLOCK picks the victim: every hit marks its entry as referenced,
+ * and the set's hand sweeps past referenced entries (clearing the mark) until
+ * it finds one that has not been used since the last sweep.
+ * <p>
+ * Entries are immutable apart from their reference bit and are published
+ * through an {@link AtomicReferenceArray}, so readers never lock. Two threads
+ * filling the same set at once may overwrite each other's entry, which only
+ * costs a later miss.
+ */
+public final class MoveCache {
+    private static final int WAYS = 4;
+
+    private final AtomicReferenceArray<Entry> slots;
+    // Per-set CLOCK hands; a lost update between threads only changes which entry is evicted
+    private final int[] hands;
+    private final int setMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxEntries how many entries the cache may hold, rounded up to a
+     *                   power of two of at least 4
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public MoveCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxEntries);
+        }
+        int capacity = Math.max(WAYS, Integer.highestOneBit(maxEntries - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.hands = new int[capacity / WAYS];
+        this.setMask = capacity / WAYS - 1;
+    }
+
+    /**
+     * @return the packed legal moves stored for the position and origin
+     * square, or null if there are none
+     */
+    int[] get(long key, int square) {
+        int base = setIndex(key, square) * WAYS;
+        for (int way = 0; way < WAYS; way++) {
+            Entry entry = slots.get(base + way);
+            if (entry != null && entry.key == key && entry.square == square) {
+                if (!entry.referenced) {
+                    entry.referenced = true;
+                }
+                hits.increment();
+                return entry.moves;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores the packed legal moves for a position and origin square. The
+     * array is kept as is, so the caller must not change it afterwards.
+     */
+    void put(long key, int square, int[] moves) {
+        int set = setIndex(key, square);
+        int base = set * WAYS;
+        Entry entry = new Entry(key, square, moves);
+        for (int way = 0; way < WAYS; way++) {
+            if (slots.get(base + way) == null) {
+                slots.set(base + way, entry);
+                return;
+            }
+        }
+
+        int hand = hands[set];
+        while (true) {
+            Entry victim = slots.get(base + hand);
+            if (victim == null || !victim.referenced) {
+                break;
+            }
+            victim.referenced = false;
+            hand = (hand + 1) & (WAYS - 1);
+        }
+        slots.set(base + hand, entry);
+        hands[set] = (hand + 1) & (WAYS - 1);
+    }
+
+    private int setIndex(long key, int square) {
+        long hash = (key ^ square) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & setMask;
+    }
+
+    /**
+     * @return the most entries the cache holds at once
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return how many lookups found their moves in the cache
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return how many lookups had to generate their moves
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Empties the cache and resets the hit and miss counters
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private static final class Entry {
+        final long key;
+        final int square;
+        final int[] moves;
+        // CLOCK reference bit; racy reads and writes only affect which entry is evicted
+        volatile boolean referenced;
+
+        Entry(long key, int square, int[] moves) {
+            this.key = key;
+            this.square = square;
+            this.moves = moves;
+        }
+    }
+}
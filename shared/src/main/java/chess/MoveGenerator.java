@@ -0,0 +1,326 @@
+package chess;
+
+/**
+ * Allocation-free move generation over a {@link ChessBoard}'s bitboards.
+ * Moves are written as packed ints (see {@link PackedMove}) into a
+ * caller-supplied {@link MoveList}.
+ * <p>
+ * Legal moves are generated directly: the pieces giving check, the squares
+ * that resolve a check and the pieces pinned to their king are worked out once
+ * per position, and every target set is masked by them, so no move is ever
+ * tried on the board and then taken back.
+ * <p>
+ * Colours are passed as {@code TeamColor.ordinal()} and piece types as
+ * {@code PieceType.ordinal()}.
+ */
+final class MoveGenerator {
+    private static final int[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN.ordinal() + 1, ChessPiece.PieceType.ROOK.ordinal() + 1,
+            ChessPiece.PieceType.KNIGHT.ordinal() + 1, ChessPiece.PieceType.BISHOP.ordinal() + 1
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Appends every legal move for the pieces of the given colour standing on
+     * the origin squares. Castling and en passant depend on the game rather
+     * than the board, so they are read from the game's {@link GameState} word:
+     * castling follows the colour's rights, and en passant is only offered to
+     * the side to move. If the colour has no king, nothing can leave it in
+     * check, so every move its pieces can make is legal.
+     *
+     * @param state   the game's packed state
+     * @param origins bitboard of the squares to generate moves from
+     */
+    static void legalMoves(ChessBoard board, long state, int color, long origins, MoveList moves) {
+        long ownPieces = board.colorOccupancy(color);
+        long occupied = board.getOccupancy();
+        int kingSquare = board.kingSquare(color);
+        int enPassant = GameState.sideToMove(state) == color ? GameState.enPassant(state) : GameState.NO_EN_PASSANT;
+        origins &= ownPieces;
+
+        if (kingSquare == 64) {
+            long pieces = origins;
+            while (pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieceMoves(board, square, color, typeAt(board, square), ~ownPieces, moves);
+                pieces &= pieces - 1;
+            }
+            if (enPassant != GameState.NO_EN_PASSANT) {
+                addEnPassantMoves(board, color, kingSquare, enPassant, origins, moves);
+            }
+            return;
+        }
+
+        long kingBit = 1L << kingSquare;
+        long checkers = board.attackersTo(kingSquare, color ^ 1, occupied);
+        if ((origins & kingBit) != 0) {
+            addKingMoves(board, kingSquare, color, moves);
+            if (checkers == 0 && kingSquare == color * 56 + 4) {
+                addCastlingMoves(board, color, GameState.castling(state), occupied, moves);
+            }
+        }
+
+        // In double check only the king can move
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+
+        // Any other move must capture the checker or block its line to the king
+        long evasionMask = checkers == 0 ? -1L
+                : checkers | Bitboards.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        long pinned = pinnedPieces(board, color, kingSquare, occupied);
+
+        long pieces = origins & ~kingBit;
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            long allowed = ~ownPieces & evasionMask;
+            if ((pinned & (1L << square)) != 0) {
+                // A pinned piece may only slide along the line through its king and pinner
+                allowed &= Bitboards.line(kingSquare, square);
+            }
+            pieceMoves(board, square, color, typeAt(board, square), allowed, moves);
+            pieces &= pieces - 1;
+        }
+
+        if (enPassant != GameState.NO_EN_PASSANT) {
+            addEnPassantMoves(board, color, kingSquare, enPassant, origins, moves);
+        }
+    }
+
+    /**
+     * Checks one move for the side to move without generating any other: the
+     * target must be in the piece's attack table entry (or be a pawn push,
+     * castling or en passant capture the game allows), and with the move
+     * played on a copy of the occupancy no enemy piece may attack the king.
+     * That one attack test covers pins, checks and king moves alike.
+     *
+     * @param promotion 0 for no promotion, otherwise {@code PieceType.ordinal() + 1}
+     * @return the packed move with its flags, or -1 if the move is not legal
+     */
+    static int legalMove(ChessBoard board, long state, int from, int to, int promotion) {
+        int color = GameState.sideToMove(state);
+        ChessPiece piece = board.pieceAt(from);
+        long toBit = 1L << to;
+        if (piece == null || piece.getTeamColor().ordinal() != color || (board.colorOccupancy(color) & toBit) != 0) {
+            return -1;
+        }
+        int type = piece.getPieceType().ordinal();
+        long occupied = board.getOccupancy();
+
+        // Pawns reaching the last rank must promote, to anything but a king or pawn, and nothing else may
+        boolean promotes = type == ChessPiece.PAWN && (to >>> 3 == 0 || to >>> 3 == 7);
+        if (promotes != (promotion != 0)
+                || (promotes && (promotion <= ChessPiece.KING + 1 || promotion > ChessPiece.ROOK + 1))) {
+            return -1;
+        }
+
+        int flags = (board.colorOccupancy(color ^ 1) & toBit) != 0 ? PackedMove.CAPTURE : 0;
+        long captured = flags != 0 ? toBit : 0L;
+        if (type == ChessPiece.PAWN) {
+            int step = color == 0 ? 8 : -8;
+            if ((Bitboards.pawnAttacks(color, from) & toBit) != 0) {
+                if (flags == 0) {
+                    captured = 1L << (to - step);
+                    if (to != GameState.enPassant(state) || (board.pieces(color ^ 1, ChessPiece.PAWN) & captured) == 0) {
+                        return -1;
+                    }
+                    flags = PackedMove.CAPTURE | PackedMove.EN_PASSANT;
+                }
+            } else if (to == from + step) {
+                if (flags != 0) {
+                    return -1;
+                }
+            } else if (to == from + 2 * step && (from >>> 3) == (color == 0 ? 1 : 6)) {
+                if ((occupied & (toBit | (1L << (from + step)))) != 0) {
+                    return -1;
+                }
+                flags = PackedMove.DOUBLE_PUSH;
+            } else {
+                return -1;
+            }
+        } else if ((Bitboards.attacks(color, type, from, occupied) & toBit) == 0) {
+            if (type == ChessPiece.KING && from == color * 56 + 4 && (to == from + 2 || to == from - 2)
+                    && board.attackersTo(from, color ^ 1, occupied) == 0
+                    && canCastle(board, color, GameState.castling(state), occupied, to > from)) {
+                return PackedMove.of(from, to, 0, PackedMove.CASTLE);
+            }
+            return -1;
+        }
+
+        int kingSquare = type == ChessPiece.KING ? to : board.kingSquare(color);
+        long after = (occupied ^ (1L << from) ^ captured) | toBit;
+        if (kingSquare != 64 && (board.attackersTo(kingSquare, color ^ 1, after) & ~captured) != 0) {
+            return -1;
+        }
+        return PackedMove.of(from, to, promotion, flags);
+    }
+
+    /**
+     * Appends every move a piece of the given colour and type could make from
+     * {@code square}, without considering whether it leaves its king in danger.
+     */
+    static void pieceMoves(ChessBoard board, int square, int color, int type, MoveList moves) {
+        pieceMoves(board, square, color, type, ~board.colorOccupancy(color), moves);
+    }
+
+    /**
+     * Appends the moves of a piece whose target square lies in {@code allowed}
+     */
+    private static void pieceMoves(ChessBoard board, int square, int color, int type, long allowed, MoveList moves) {
+        long enemyPieces = board.colorOccupancy(color ^ 1);
+        long occupied = board.getOccupancy();
+
+        if (type == ChessPiece.PAWN) {
+            addPawnMoves(square, color, occupied, enemyPieces, allowed, moves);
+        } else {
+            addMoves(square, Bitboards.attacks(color, type, square, occupied) & allowed, enemyPieces, moves);
+        }
+    }
+
+    /**
+     * The king may step to any square the opponent does not attack once the
+     * king itself is lifted off the board (so it cannot hide behind itself
+     * along a checking slider's line).
+     */
+    private static void addKingMoves(ChessBoard board, int kingSquare, int color, MoveList moves) {
+        long occupied = board.getOccupancy() & ~(1L << kingSquare);
+        long targets = Bitboards.kingAttacks(kingSquare) & ~board.colorOccupancy(color);
+        if (targets != 0) {
+            targets &= ~board.attackedSquares(color ^ 1, occupied);
+        }
+        addMoves(kingSquare, targets, board.colorOccupancy(color ^ 1), moves);
+    }
+
+    private static void addCastlingMoves(ChessBoard board, int color, int castling, long occupied, MoveList moves) {
+        int king = color * 56 + 4;
+        if (canCastle(board, color, castling, occupied, true)) {
+            moves.add(PackedMove.of(king, king + 2, 0, PackedMove.CASTLE));
+        }
+        if (canCastle(board, color, castling, occupied, false)) {
+            moves.add(PackedMove.of(king, king - 2, 0, PackedMove.CASTLE));
+        }
+    }
+
+    /**
+     * Castling needs the right, the rook on its corner, nothing between the
+     * two and no attack on the squares the king starts on, crosses or lands
+     * on. The caller has already checked that the king is on its home square
+     * and not in check.
+     */
+    private static boolean canCastle(ChessBoard board, int color, int castling, long occupied, boolean kingside) {
+        int king = color * 56 + 4;
+        int enemy = color ^ 1;
+        long rooks = board.pieces(color, ChessPiece.ROOK);
+        if (kingside) {
+            return (castling & (GameState.WHITE_KINGSIDE << (color * 2))) != 0
+                    && (rooks & (1L << (king + 3))) != 0
+                    && (occupied & (3L << (king + 1))) == 0
+                    && board.attackersTo(king + 1, enemy, occupied) == 0
+                    && board.attackersTo(king + 2, enemy, occupied) == 0;
+        }
+        return (castling & (GameState.WHITE_QUEENSIDE << (color * 2))) != 0
+                && (rooks & (1L << (king - 4))) != 0
+                && (occupied & (7L << (king - 3))) == 0
+                && board.attackersTo(king - 1, enemy, occupied) == 0
+                && board.attackersTo(king - 2, enemy, occupied) == 0;
+    }
+
+    /**
+     * An en passant capture takes two pieces off the capturer's rank at once,
+     * which the pin mask cannot describe (the classic case is a rook behind
+     * both pawns). Instead the capture is played on a copy of the occupancy
+     * and the king is tested for attackers directly, ignoring the captured
+     * pawn; this also covers evading a check from the pawn that just moved.
+     *
+     * @param target  the en passant target square
+     * @param origins bitboard of the squares capturing pawns may stand on
+     */
+    private static void addEnPassantMoves(ChessBoard board, int color, int kingSquare, int target, long origins,
+                                          MoveList moves) {
+        long capturedBit = 1L << (target + (color == 0 ? -8 : 8));
+        if ((board.pieces(color ^ 1, ChessPiece.PAWN) & capturedBit) == 0 || (board.getOccupancy() & (1L << target)) != 0) {
+            return;
+        }
+        long pawns = Bitboards.pawnAttacks(color ^ 1, target) & board.pieces(color, ChessPiece.PAWN) & origins;
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            long occupied = (board.getOccupancy() ^ (1L << from) ^ capturedBit) | (1L << target);
+            if (kingSquare == 64 || (board.attackersTo(kingSquare, color ^ 1, occupied) & ~capturedBit) == 0) {
+                moves.add(PackedMove.of(from, target, 0, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+            }
+            pawns &= pawns - 1;
+        }
+    }
+
+    /**
+     * X-rays the opponent's sliders through to the king: a slider with exactly
+     * one piece between it and the king pins that piece if it is ours.
+     */
+    private static long pinnedPieces(ChessBoard board, int color, int kingSquare, long occupied) {
+        int enemy = color ^ 1;
+        long enemyPieces = board.colorOccupancy(enemy);
+        long queens = board.pieces(enemy, ChessPiece.QUEEN);
+        long pinners = (Bitboards.rookAttacks(kingSquare, enemyPieces) & (board.pieces(enemy, ChessPiece.ROOK) | queens))
+                | (Bitboards.bishopAttacks(kingSquare, enemyPieces) & (board.pieces(enemy, ChessPiece.BISHOP) | queens));
+
+        long pinned = 0L;
+        while (pinners != 0) {
+            long blockers = Bitboards.between(kingSquare, Long.numberOfTrailingZeros(pinners)) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & board.colorOccupancy(color);
+            }
+            pinners &= pinners - 1;
+        }
+        return pinned;
+    }
+
+    private static int typeAt(ChessBoard board, int square) {
+        return board.pieceAt(square).getPieceType().ordinal();
+    }
+
+    private static void addMoves(int from, long targets, long enemyPieces, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemyPieces & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+            moves.add(PackedMove.of(from, to, 0, flags));
+            targets &= targets - 1;
+        }
+    }
+
+    private static void addPawnMoves(int from, int color, long occupied, long enemyPieces, long allowed, MoveList moves) {
+        int step = color == 0 ? 8 : -8;
+        int startRank = color == 0 ? 1 : 6;
+
+        // Forward moves, including the two-square move from the starting row
+        int forward = from + step;
+        if (forward >= 0 && forward < 64 && (occupied & (1L << forward)) == 0) {
+            if ((allowed & (1L << forward)) != 0) {
+                addPawnMove(from, forward, 0, moves);
+            }
+            int twoForward = forward + step;
+            if ((from >>> 3) == startRank && (occupied & (1L << twoForward)) == 0 && (allowed & (1L << twoForward)) != 0) {
+                moves.add(PackedMove.of(from, twoForward, 0, PackedMove.DOUBLE_PUSH));
+            }
+        }
+
+        // Diagonal captures
+        long captures = Bitboards.pawnAttacks(color, from) & enemyPieces & allowed;
+        while (captures != 0) {
+            addPawnMove(from, Long.numberOfTrailingZeros(captures), PackedMove.CAPTURE, moves);
+            captures &= captures - 1;
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int flags, MoveList moves) {
+        int rank = to >>> 3;
+        if (rank == 0 || rank == 7) {
+            for (int promotion : PROMOTIONS) {
+                moves.add(PackedMove.of(from, to, promotion, flags));
+            }
+        } else {
+            moves.add(PackedMove.of(from, to, 0, flags));
+        }
+    }
+}
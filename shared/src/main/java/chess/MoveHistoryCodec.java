@@ -0,0 +1,84 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Compresses a game's moves to one byte per ply by storing each move as its
+ * index in the current position's legal moves, sorted by packed value (see
+ * {@link PackedMove}). No position has more than 218 legal moves, so every
+ * index fits in an unsigned byte.
+ * <p>
+ * The starting position is not part of the encoding; store it alongside,
+ * e.g. with {@link ChessCodec}, and replay the history from the same
+ * position it was encoded from.
+ */
+public final class MoveHistoryCodec {
+    private MoveHistoryCodec() {
+    }
+
+    /**
+     * @param start the position the moves are played from, which is left unchanged
+     * @param moves the moves in the order they were played
+     * @return one byte per move
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public static byte[] encode(ChessGame start, Iterable<ChessMove> moves) {
+        ChessGame game = start.copy();
+        MoveList legalMoves = new MoveList();
+        byte[] history = new byte[16];
+        int length = 0;
+        for (ChessMove move : moves) {
+            int index = indexOf(game, move, legalMoves);
+            if (length == history.length) {
+                history = Arrays.copyOf(history, length * 2);
+            }
+            history[length++] = (byte) index;
+            game.make(legalMoves.get(index));
+        }
+        return Arrays.copyOf(history, length);
+    }
+
+    /**
+     * Plays an encoded history on a game, which must be in the position the
+     * history was encoded from
+     *
+     * @throws IllegalArgumentException if an index does not name a legal move,
+     *                                  e.g. because the game started elsewhere
+     */
+    public static void decode(byte[] history, ChessGame game) {
+        MoveList legalMoves = new MoveList();
+        for (byte encoded : history) {
+            int index = encoded & 0xFF;
+            legalMoves.clear();
+            game.legalMoves(legalMoves);
+            if (index >= legalMoves.size()) {
+                throw new IllegalArgumentException("Move index " + index + " out of range in " + game.toFen());
+            }
+            legalMoves.sort();
+            game.make(legalMoves.get(index));
+        }
+    }
+
+    /**
+     * Leaves the position's sorted legal moves in {@code legalMoves}
+     *
+     * @return the index of the move among them
+     */
+    private static int indexOf(ChessGame game, ChessMove move, MoveList legalMoves) {
+        int from = ChessBoard.square(move.getStartPosition());
+        int to = ChessBoard.square(move.getEndPosition());
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1;
+
+        legalMoves.clear();
+        game.legalMoves(legalMoves);
+        legalMoves.sort();
+        for (int i = 0; i < legalMoves.size(); i++) {
+            int candidate = legalMoves.get(i);
+            if (PackedMove.from(candidate) == from && PackedMove.to(candidate) == to
+                    && PackedMove.promotion(candidate) == promotion) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Illegal move " + PackedMove.toUci(PackedMove.of(from, to, promotion, 0)) + " in " + game.toFen());
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of packed moves (see {@link PackedMove}).
+ * <p>
+ * Clearing and refilling a list allocates nothing; the backing array only
+ * grows in the rare case that a position produces more moves than its initial
+ * capacity.
+ */
+public final class MoveList {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[DEFAULT_CAPACITY];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Sorts the moves by their packed value, giving an order that depends only
+     * on the moves and not on the order they were generated in
+     */
+    public void sort() {
+        Arrays.sort(moves, 0, size);
+    }
+
+    /**
+     * @return the backing array, without copying; only the first {@link #size()}
+     * entries are moves
+     */
+    int[] array() {
+        return moves;
+    }
+
+    /**
+     * @return a new array holding just the moves in the list
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+}
@@ -0,0 +1,97 @@
+package chess;
+
+/**
+ * Encodes a move as a single {@code int} so move generation can fill a
+ * reusable {@link MoveList} without allocating a {@link ChessMove} per move.
+ * <p>
+ * Layout, from the least significant bit: origin square (6 bits), target
+ * square (6 bits), promotion piece (3 bits, 0 for none, otherwise
+ * {@code PieceType.ordinal() + 1}) and flags (4 bits). Squares use the
+ * bitboard numbering described in {@link ChessBoard}.
+ */
+public final class PackedMove {
+    /**
+     * The move captures the piece standing on its target square
+     */
+    public static final int CAPTURE = 1;
+    /**
+     * A pawn moving two squares from its starting row
+     */
+    public static final int DOUBLE_PUSH = 1 << 1;
+    /**
+     * A pawn capturing en passant; the captured pawn stands beside the origin
+     * square rather than on the target square
+     */
+    public static final int EN_PASSANT = 1 << 2;
+    /**
+     * A king castling; the move records the king's two-square step and the
+     * rook moves with it
+     */
+    public static final int CASTLE = 1 << 3;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int FLAGS_SHIFT = 15;
+
+    private PackedMove() {
+    }
+
+    /**
+     * @param promotion 0 for no promotion, otherwise {@code PieceType.ordinal() + 1}
+     */
+    public static int of(int from, int to, int promotion, int flags) {
+        return from | (to << TO_SHIFT) | (promotion << PROMOTION_SHIFT) | (flags << FLAGS_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return 0 for no promotion, otherwise {@code PieceType.ordinal() + 1}
+     */
+    public static int promotion(int move) {
+        return (move >>> PROMOTION_SHIFT) & 0x7;
+    }
+
+    public static int flags(int move) {
+        return move >>> FLAGS_SHIFT;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move does not promote
+     */
+    public static ChessPiece.PieceType promotionType(int move) {
+        int promotion = promotion(move);
+        return promotion == 0 ? null : ChessPiece.PieceType.values()[promotion - 1];
+    }
+
+    /**
+     * @return the move in long algebraic (UCI) notation, e.g. {@code e2e4} or {@code e7e8q}
+     */
+    public static String toUci(int move) {
+        StringBuilder builder = new StringBuilder(5);
+        appendSquare(builder, from(move));
+        appendSquare(builder, to(move));
+        if (promotion(move) != 0) {
+            builder.append(ChessPiece.SYMBOLS.charAt(promotion(move) - 1));
+        }
+        return builder.toString();
+    }
+
+    private static void appendSquare(StringBuilder builder, int square) {
+        builder.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+
+    /**
+     * @return the shared {@link ChessMove} equivalent to a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+}
@@ -0,0 +1,160 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree below a position ("perft").
+ * <p>
+ * Perft is both the move generator's correctness check, since node counts for
+ * standard positions are well known, and its speed benchmark. Counting walks
+ * the tree with {@link ChessGame#make(int)}/{@link ChessGame#unmake()} and one
+ * reusable {@link MoveList} per ply; the parallel mode hands each root move to
+ * the fork/join common pool on its own copy of the game.
+ * <p>
+ * Usage: {@code java chess.Perft <depth> [--parallel] [fen]} prints the node
+ * count below every root move of the position (the starting position if no FEN
+ * is given), the total and nodes/second.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * @return the number of move sequences of exactly {@code depth} plies from
+     * the game's current position
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList[] moveLists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return perft(game, depth, moveLists);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] moveLists) {
+        MoveList moves = moveLists[depth - 1];
+        moves.clear();
+        game.legalMoves(moves);
+
+        // Every legal move at the last ply is one leaf, so there is no need to play them
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.make(moves.get(i));
+            nodes += perft(game, depth - 1, moveLists);
+            game.unmake();
+        }
+        return nodes;
+    }
+
+    /**
+     * Same as {@link #perft(ChessGame, int)}, but searches the root moves in
+     * parallel
+     */
+    public static long parallelPerft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (long count : divide(game, depth, true).values()) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * Splits the perft count by root move
+     *
+     * @param depth    at least 1
+     * @param parallel whether to search the root moves on the fork/join common pool
+     * @return node count below each legal root move, keyed by its UCI name
+     */
+    public static Map<String, Long> divide(ChessGame game, int depth, boolean parallel) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (!parallel) {
+            for (int i = 0; i < rootMoves.size(); i++) {
+                int move = rootMoves.get(i);
+                game.make(move);
+                counts.put(PackedMove.toUci(move), perft(game, depth - 1));
+                game.unmake();
+            }
+            return counts;
+        }
+
+        List<RootMoveTask> tasks = new ArrayList<>(rootMoves.size());
+        for (int i = 0; i < rootMoves.size(); i++) {
+            RootMoveTask task = new RootMoveTask(game.copy(), rootMoves.get(i), depth - 1);
+            task.fork();
+            tasks.add(task);
+        }
+        for (RootMoveTask task : tasks) {
+            counts.put(PackedMove.toUci(task.move), task.join());
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the tree below one root move on a private copy of the game
+     */
+    private static final class RootMoveTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int move;
+        private final int depth;
+
+        RootMoveTask(ChessGame game, int move, int depth) {
+            this.game = game;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            game.make(move);
+            return perft(game, depth);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java chess.Perft <depth> [--parallel] [fen]");
+            System.exit(1);
+        }
+        int depth = Integer.parseInt(args[0]);
+        boolean parallel = args.length > 1 && args[1].equals("--parallel");
+        int fenStart = parallel ? 2 : 1;
+
+        ChessGame game = args.length > fenStart
+                ? ChessGame.fromFen(String.join(" ", List.of(args).subList(fenStart, args.length)))
+                : new ChessGame();
+        long start = System.nanoTime();
+        Map<String, Long> counts = divide(game, depth, parallel);
+        long elapsed = System.nanoTime() - start;
+
+        long nodes = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Nodes searched: " + nodes);
+        System.out.printf("Time: %.3f s%n", elapsed / 1e9);
+        System.out.printf("Nodes/second: %,d%n", (long) (nodes / (elapsed / 1e9)));
+    }
+}
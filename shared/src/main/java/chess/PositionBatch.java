@@ -0,0 +1,67 @@
+package chess;
+
+/**
+ * A fixed-capacity batch of positions laid out for {@link BatchEvaluator}:
+ * one array per piece bitboard, indexed by position, so the same bitboard of
+ * consecutive positions sits side by side in memory and can be loaded into
+ * vector lanes together.
+ */
+public final class PositionBatch {
+    private static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+    // Indexed [colour * 6 + type][position]
+    final long[][] pieces;
+    // All ones where black is to move, so it can be used directly as a lane mask
+    final long[] blackToMove;
+    private int size;
+
+    /**
+     * @param capacity the most positions the batch can hold
+     */
+    public PositionBatch(int capacity) {
+        this.pieces = new long[2 * PIECE_TYPE_COUNT][capacity];
+        this.blackToMove = new long[capacity];
+    }
+
+    /**
+     * Adds a copy of the game's pieces and the team to move
+     *
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(ChessGame game) {
+        add(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * Adds a copy of the board's pieces with the given team to move
+     *
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(ChessBoard board, ChessGame.TeamColor teamTurn) {
+        if (size == blackToMove.length) {
+            throw new IllegalStateException("Batch is full: " + size);
+        }
+        for (int color = 0; color < 2; color++) {
+            for (int type = 0; type < PIECE_TYPE_COUNT; type++) {
+                pieces[color * PIECE_TYPE_COUNT + type][size] = board.pieces(color, type);
+            }
+        }
+        blackToMove[size] = teamTurn == ChessGame.TeamColor.BLACK ? -1L : 0L;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return blackToMove.length;
+    }
+
+    /**
+     * Empties the batch so it can be refilled without allocating
+     */
+    public void clear() {
+        size = 0;
+    }
+}
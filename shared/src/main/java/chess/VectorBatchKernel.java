@@ -0,0 +1,197 @@
+package chess;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static chess.BatchEvaluator.KNIGHT_MASKS;
+import static chess.BatchEvaluator.KNIGHT_SHIFTS;
+import static chess.BatchEvaluator.PAWN_MASKS;
+import static chess.BatchEvaluator.PAWN_SHIFTS;
+import static chess.BatchEvaluator.SLIDER_MASKS;
+import static chess.BatchEvaluator.SLIDER_SHIFTS;
+
+/**
+ * The lane-parallel half of {@link BatchEvaluator}: the same set-wise
+ * computations on {@link LongVector}s, one position per lane. Each method
+ * handles the positions that fill whole vectors and returns how many it
+ * handled; the caller does the rest on the scalar path.
+ * <p>
+ * Only {@link BatchEvaluator} refers to this class, and only once it has
+ * found the {@code jdk.incubator.vector} module, so the class is never loaded
+ * on a JVM without it.
+ */
+final class VectorBatchKernel {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final long RANK_3 = Bitboards.RANK_1 << 16;
+    private static final long RANK_6 = Bitboards.RANK_1 << 40;
+
+    private VectorBatchKernel() {
+    }
+
+    static int attacks(long[][] pieces, int color, int size, long[] out) {
+        int bound = SPECIES.loopBound(size);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            attacks(pieces, color, i, occupancy(pieces, i).not()).intoArray(out, i);
+        }
+        return bound;
+    }
+
+    static int mobility(long[][] pieces, int color, int size, int[] out) {
+        int bound = SPECIES.loopBound(size);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            int base = color * 6;
+            LongVector own = load(pieces, base, i);
+            LongVector enemy = load(pieces, base ^ 6, i);
+            for (int type = 1; type < 6; type++) {
+                own = own.or(load(pieces, base + type, i));
+                enemy = enemy.or(load(pieces, (base ^ 6) + type, i));
+            }
+            LongVector empty = own.or(enemy).not();
+            LongVector notOwn = own.not();
+            LongVector queens = load(pieces, base + ChessPiece.QUEEN, i);
+            LongVector rooks = load(pieces, base + ChessPiece.ROOK, i).or(queens);
+            LongVector bishops = load(pieces, base + ChessPiece.BISHOP, i).or(queens);
+            LongVector knights = load(pieces, base + ChessPiece.KNIGHT, i);
+            LongVector king = load(pieces, base + ChessPiece.KING, i);
+            LongVector pawns = load(pieces, base + ChessPiece.PAWN, i);
+
+            LongVector count = LongVector.zero(SPECIES);
+            for (int d = 0; d < 8; d++) {
+                count = count
+                        .add(slide(d < 4 ? rooks : bishops, empty, SLIDER_SHIFTS[d], SLIDER_MASKS[d]).and(notOwn)
+                                .lanewise(VectorOperators.BIT_COUNT))
+                        .add(shift(king, SLIDER_SHIFTS[d]).and(SLIDER_MASKS[d]).and(notOwn)
+                                .lanewise(VectorOperators.BIT_COUNT))
+                        .add(shift(knights, KNIGHT_SHIFTS[d]).and(KNIGHT_MASKS[d]).and(notOwn)
+                                .lanewise(VectorOperators.BIT_COUNT));
+            }
+            int d = color * 2;
+            count = count
+                    .add(shift(pawns, PAWN_SHIFTS[d]).and(PAWN_MASKS[d]).and(enemy).lanewise(VectorOperators.BIT_COUNT))
+                    .add(shift(pawns, PAWN_SHIFTS[d + 1]).and(PAWN_MASKS[d + 1]).and(enemy).lanewise(VectorOperators.BIT_COUNT));
+            int push = color == 0 ? 8 : -8;
+            LongVector single = shift(pawns, push).and(empty);
+            LongVector twice = shift(single.and(color == 0 ? RANK_3 : RANK_6), push).and(empty);
+            count = count.add(single.lanewise(VectorOperators.BIT_COUNT)).add(twice.lanewise(VectorOperators.BIT_COUNT));
+
+            for (int lane = 0; lane < SPECIES.length(); lane++) {
+                out[i + lane] = (int) count.lane(lane);
+            }
+        }
+        return bound;
+    }
+
+    static int inCheck(long[][] pieces, long[] blackToMove, int size, boolean[] out) {
+        int bound = SPECIES.loopBound(size);
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            // Each lane picks its own king and its opponent's pieces by masking on the side to move.
+            // Every bitboard is loaded once and reused for the occupancy, which keeps the compiled
+            // loop small enough for the JIT to inline every vector operation
+            LongVector black = LongVector.fromArray(SPECIES, blackToMove, i);
+            LongVector white = black.not();
+            LongVector occupied = LongVector.zero(SPECIES);
+            LongVector king = occupied;
+            LongVector queens = occupied;
+            LongVector rooks = occupied;
+            LongVector bishops = occupied;
+            LongVector knights = occupied;
+            LongVector pawns = occupied;
+            for (int color = 0; color < 2; color++) {
+                int base = color * 6;
+                LongVector own = color == 0 ? white : black;
+                LongVector opponent = color == 0 ? black : white;
+                LongVector piece = load(pieces, base + ChessPiece.KING, i);
+                occupied = occupied.or(piece);
+                king = king.or(piece.and(own));
+                piece = load(pieces, base + ChessPiece.QUEEN, i);
+                occupied = occupied.or(piece);
+                queens = queens.or(piece.and(opponent));
+                piece = load(pieces, base + ChessPiece.ROOK, i);
+                occupied = occupied.or(piece);
+                rooks = rooks.or(piece.and(opponent));
+                piece = load(pieces, base + ChessPiece.BISHOP, i);
+                occupied = occupied.or(piece);
+                bishops = bishops.or(piece.and(opponent));
+                piece = load(pieces, base + ChessPiece.KNIGHT, i);
+                occupied = occupied.or(piece);
+                knights = knights.or(piece.and(opponent));
+                piece = load(pieces, base + ChessPiece.PAWN, i);
+                occupied = occupied.or(piece);
+                pawns = pawns.or(piece.and(opponent));
+            }
+            rooks = rooks.or(queens);
+            bishops = bishops.or(queens);
+            LongVector empty = occupied.not();
+
+            LongVector checkers = LongVector.zero(SPECIES);
+            for (int d = 0; d < 8; d++) {
+                checkers = checkers
+                        .or(slide(king, empty, SLIDER_SHIFTS[d], SLIDER_MASKS[d]).and(d < 4 ? rooks : bishops))
+                        .or(shift(king, KNIGHT_SHIFTS[d]).and(KNIGHT_MASKS[d]).and(knights));
+            }
+            // A white king is checked by pawns on the squares it would attack as a white pawn, and vice versa.
+            // The two pawn steps, here and below, are written out: as a loop after the direction loop, the
+            // JIT boxed the vectors it carried
+            LongVector whitePawnReach = shift(king, PAWN_SHIFTS[0]).and(PAWN_MASKS[0])
+                    .or(shift(king, PAWN_SHIFTS[1]).and(PAWN_MASKS[1]));
+            LongVector blackPawnReach = shift(king, PAWN_SHIFTS[2]).and(PAWN_MASKS[2])
+                    .or(shift(king, PAWN_SHIFTS[3]).and(PAWN_MASKS[3]));
+            checkers = checkers.or(whitePawnReach.and(white).or(blackPawnReach.and(black)).and(pawns));
+            long lanes = checkers.compare(VectorOperators.NE, 0L).toLong();
+            for (int lane = 0; lane < SPECIES.length(); lane++) {
+                out[i + lane] = (lanes >>> lane & 1L) != 0;
+            }
+        }
+        return bound;
+    }
+
+    private static LongVector attacks(long[][] pieces, int color, int i, LongVector empty) {
+        int base = color * 6;
+        LongVector queens = load(pieces, base + ChessPiece.QUEEN, i);
+        LongVector rooks = load(pieces, base + ChessPiece.ROOK, i).or(queens);
+        LongVector bishops = load(pieces, base + ChessPiece.BISHOP, i).or(queens);
+        LongVector knights = load(pieces, base + ChessPiece.KNIGHT, i);
+        LongVector king = load(pieces, base + ChessPiece.KING, i);
+        LongVector pawns = load(pieces, base + ChessPiece.PAWN, i);
+
+        LongVector attacks = LongVector.zero(SPECIES);
+        for (int d = 0; d < 8; d++) {
+            attacks = attacks
+                    .or(slide(d < 4 ? rooks : bishops, empty, SLIDER_SHIFTS[d], SLIDER_MASKS[d]))
+                    .or(shift(king, SLIDER_SHIFTS[d]).and(SLIDER_MASKS[d]))
+                    .or(shift(knights, KNIGHT_SHIFTS[d]).and(KNIGHT_MASKS[d]));
+        }
+        int d = color * 2;
+        return attacks
+                .or(shift(pawns, PAWN_SHIFTS[d]).and(PAWN_MASKS[d]))
+                .or(shift(pawns, PAWN_SHIFTS[d + 1]).and(PAWN_MASKS[d + 1]));
+    }
+
+    private static LongVector load(long[][] pieces, int index, int i) {
+        return LongVector.fromArray(SPECIES, pieces[index], i);
+    }
+
+    private static LongVector occupancy(long[][] pieces, int i) {
+        LongVector occupied = load(pieces, 0, i);
+        for (int index = 1; index < pieces.length; index++) {
+            occupied = occupied.or(load(pieces, index, i));
+        }
+        return occupied;
+    }
+
+    private static LongVector shift(LongVector bitboards, int shift) {
+        return bitboards.lanewise(VectorOperators.ROL, shift & 63);
+    }
+
+    private static LongVector slide(LongVector sliders, LongVector empty, int shift, long mask) {
+        // The doubling steps are a loop rather than written out, so fewer vector operations are
+        // parsed per call site and the JIT can still inline all of them into the kernels
+        LongVector propagate = empty.and(mask);
+        for (int step = 0; step < 3; step++) {
+            sliders = sliders.or(propagate.and(shift(sliders, shift << step)));
+            propagate = propagate.and(shift(propagate, shift << step));
+        }
+        return shift(sliders, shift).and(mask);
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the
+ * key for every piece on its square plus the keys for the side to move, the
+ * castling rights and the en passant file, so placing, removing or moving a
+ * piece updates it with one or two XORs.
+ * <p>
+ * The keys come from a fixed-seed SplitMix64 sequence, so they are the same on
+ * every run and stored keys stay comparable.
+ */
+final class Zobrist {
+    // Indexed by piece index (colour * 6 + type) * 64 + square
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long BLACK_TO_MOVE;
+    // Indexed by the 4-bit castling rights and by en passant file
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = mix(seed += 0x9E3779B97F4A7C15L);
+        }
+        BLACK_TO_MOVE = mix(seed += 0x9E3779B97F4A7C15L);
+        // No rights hashes to 0, so a bare board keeps the key it had before
+        for (int i = 1; i < CASTLING.length; i++) {
+            CASTLING[i] = mix(seed += 0x9E3779B97F4A7C15L);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = mix(seed += 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param piece colour * 6 + type
+     */
+    static long pieceSquare(int piece, int square) {
+        return PIECE_SQUARE[piece * 64 + square];
+    }
+
+    /**
+     * @return the key for everything a {@link GameState} word holds that
+     * identifies a position: side to move, castling rights and en passant file
+     */
+    static long state(long state) {
+        int enPassant = GameState.enPassant(state);
+        return (GameState.sideToMove(state) == 1 ? BLACK_TO_MOVE : 0L)
+                ^ CASTLING[GameState.castling(state)]
+                ^ (enPassant == GameState.NO_EN_PASSANT ? 0L : EN_PASSANT_FILE[enPassant & 7]);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,94 @@
+package benchmarks;
+
+import chess.BatchEvaluator;
+import chess.ChessGame;
+import chess.MoveList;
+import chess.PositionBatch;
+
+import java.util.Random;
+
+/**
+ * Compares checking many positions for check with {@link BatchEvaluator}
+ * against calling {@link ChessGame#isInCheck} on each game in a loop, on one
+ * thread. Run the class's main method from the test classpath, with
+ * {@code --add-modules jdk.incubator.vector} to use vector lanes; it is not
+ * part of the test suite.
+ */
+public class BatchEvaluatorBenchmark {
+    private static final int POSITIONS = 4096;
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int ROUNDS = 2_000;
+
+    public static void main(String[] args) {
+        ChessGame[] games = randomGames();
+        PositionBatch batch = new PositionBatch(POSITIONS);
+        for (ChessGame game : games) {
+            batch.add(game);
+        }
+        boolean[] inCheck = new boolean[POSITIONS];
+        int[] mobility = new int[POSITIONS];
+
+        // Each loop keeps a checksum so the JIT cannot drop the work
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checksum += loopChecks(games);
+            BatchEvaluator.inCheck(batch, inCheck);
+            BatchEvaluator.mobility(batch, ChessGame.TeamColor.WHITE, mobility);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += loopChecks(games);
+        }
+        long loopNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            BatchEvaluator.inCheck(batch, inCheck);
+            checksum += inCheck[i % POSITIONS] ? 1 : 0;
+        }
+        long batchNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            BatchEvaluator.mobility(batch, ChessGame.TeamColor.WHITE, mobility);
+            checksum += mobility[i % POSITIONS];
+        }
+        long mobilityNanos = System.nanoTime() - start;
+
+        double positions = (double) POSITIONS * ROUNDS;
+        System.out.println("Vector lanes: " + BatchEvaluator.isVectorized());
+        System.out.printf("isInCheck loop:  %8.1f M positions/s%n", positions / loopNanos * 1e3);
+        System.out.printf("Batch inCheck:   %8.1f M positions/s%n", positions / batchNanos * 1e3);
+        System.out.printf("Batch mobility:  %8.1f M positions/s%n", positions / mobilityNanos * 1e3);
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static long loopChecks(ChessGame[] games) {
+        long checks = 0;
+        for (ChessGame game : games) {
+            if (game.isInCheck(game.getTeamTurn())) {
+                checks++;
+            }
+        }
+        return checks;
+    }
+
+    private static ChessGame[] randomGames() {
+        Random random = new Random(1);
+        MoveList moves = new MoveList();
+        ChessGame[] games = new ChessGame[POSITIONS];
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < POSITIONS; ) {
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                game = new ChessGame();
+                continue;
+            }
+            game.make(moves.get(random.nextInt(moves.size())));
+            games[i++] = game.copy();
+        }
+        return games;
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPosition;
+import chess.Perft;
+
+/**
+ * Compares the {@link ChessBoard.Backend}s: heap used per board, measured
+ * over many copies of the same position, and move generation throughput as
+ * perft nodes per second. Run the class's main method from the test
+ * classpath; it is not part of the test suite.
+ */
+public class BoardBackendBenchmark {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final int BOARDS = 200_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        for (ChessBoard.Backend backend : ChessBoard.Backend.values()) {
+            System.out.printf("%-8s %6.1f bytes/board%n", backend, bytesPerBoard(backend));
+        }
+
+        long checksum = 0;
+        for (ChessBoard.Backend backend : ChessBoard.Backend.values()) {
+            ChessGame game = onBackend(KIWIPETE, backend);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                checksum += Perft.perft(game, 3);
+            }
+            long nodes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) {
+                nodes += Perft.perft(game, 4);
+            }
+            long nanos = System.nanoTime() - start;
+            checksum += nodes;
+            System.out.printf("%-8s %8.2f M nodes/s (perft 4, Kiwipete)%n", backend, nodes * 1e3 / nanos);
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static double bytesPerBoard(ChessBoard.Backend backend) {
+        ChessBoard template = onBackend(KIWIPETE, backend).getBoard();
+        long before = usedHeap();
+        ChessBoard[] boards = new ChessBoard[BOARDS];
+        for (int i = 0; i < BOARDS; i++) {
+            boards[i] = copy(template, backend);
+        }
+        long after = usedHeap();
+        // Keep the boards reachable until the second measurement
+        if (boards[BOARDS - 1].getBackend() != backend) {
+            throw new AssertionError();
+        }
+        return (double) (after - before) / BOARDS - 4; // less the array slot
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static ChessGame onBackend(String fen, ChessBoard.Backend backend) {
+        ChessGame game = ChessGame.fromFen(fen);
+        game.setBoard(copy(game.getBoard(), backend));
+        return game;
+    }
+
+    private static ChessBoard copy(ChessBoard board, ChessBoard.Backend backend) {
+        ChessBoard copy = new ChessBoard(backend);
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                copy.addPiece(position, board.getPiece(position));
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import chess.ChessCodec;
+import chess.ChessGame;
+import com.google.gson.Gson;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the size and round-trip speed of {@link ChessCodec} with Gson for
+ * the same game. Run the class's main method from the test classpath; it is
+ * not part of the test suite.
+ */
+public class CodecBenchmark {
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int ROUNDS = 200_000;
+
+    public static void main(String[] args) {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Gson gson = new Gson();
+
+        int jsonBytes = gson.toJson(game).getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("Gson:   %5d bytes%n", jsonBytes);
+        System.out.printf("Binary: %5d bytes%n", ChessCodec.encode(game).length);
+
+        // Both loops keep a checksum so the JIT cannot drop the work
+        long checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            checksum += gson.fromJson(gson.toJson(game), ChessGame.class).hashCode();
+            checksum += ChessCodec.decodeGame(ChessCodec.encode(game)).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += gson.fromJson(gson.toJson(game), ChessGame.class).hashCode();
+        }
+        long gsonNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            checksum += ChessCodec.decodeGame(ChessCodec.encode(game)).hashCode();
+        }
+        long binaryNanos = System.nanoTime() - start;
+
+        System.out.printf("Gson round trip:   %8.1f ns%n", (double) gsonNanos / ROUNDS);
+        System.out.printf("Binary round trip: %8.1f ns%n", (double) binaryNanos / ROUNDS);
+        System.out.println("(checksum " + checksum + ")");
+    }
+}
@@ -0,0 +1,137 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class AttackMapTests {
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}, {1, -2}, {2, -1}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        var map = getNewGame().attackMap();
+
+        // f3 is covered by the e2 and g2 pawns and the g1 knight
+        Assertions.assertEquals(3, map.attackCount(ChessGame.TeamColor.WHITE, getNewPosition(3, 6)));
+        Assertions.assertEquals(3, map.attackCount(ChessGame.TeamColor.BLACK, getNewPosition(6, 6)));
+        // Only the queen defends e1, and nothing reaches the middle of the board
+        Assertions.assertEquals(1L << 3, map.attackers(ChessGame.TeamColor.WHITE, getNewPosition(1, 5)));
+        Assertions.assertFalse(map.isAttacked(ChessGame.TeamColor.WHITE, getNewPosition(4, 5)));
+        Assertions.assertEquals(0xFFFF7EL, map.attackedSquares(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(map.isInCheck(ChessGame.TeamColor.WHITE));
+    }
+
+
+    @Test
+    @DisplayName("Matches Every Piece's Attacks")
+    public void matchesEveryPiecesAttacks() {
+        var random = new Random(20);
+        var moves = new MoveList();
+        var game = getNewGame();
+        for (int ply = 0; ply < 2000; ply++) {
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                game = getNewGame();
+                continue;
+            }
+            game.make(moves.get(random.nextInt(moves.size())));
+
+            var map = game.attackMap();
+            for (var color : ChessGame.TeamColor.values()) {
+                long[] expected = attackers(game.getBoard(), color);
+                long attacked = 0L;
+                for (int square = 0; square < 64; square++) {
+                    var position = getNewPosition(square / 8 + 1, square % 8 + 1);
+                    Assertions.assertEquals(expected[square], map.attackers(color, position), game.toFen());
+                    Assertions.assertEquals(Long.bitCount(expected[square]), map.attackCount(color, position));
+                    attacked |= expected[square] != 0 ? 1L << square : 0L;
+                }
+                Assertions.assertEquals(attacked, map.attackedSquares(color), game.toFen());
+                Assertions.assertEquals(game.isInCheck(color), map.isInCheck(color), game.toFen());
+            }
+        }
+    }
+
+
+    @Test
+    @DisplayName("Follows The Board")
+    public void followsTheBoard() throws InvalidMoveException {
+        var game = getNewGame();
+        var map = game.attackMap();
+        Assertions.assertSame(map, game.attackMap(), "Unchanged board was scanned again");
+
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        var after = game.attackMap();
+        Assertions.assertNotSame(map, after);
+        Assertions.assertFalse(map.isAttacked(ChessGame.TeamColor.WHITE, getNewPosition(5, 4)));
+        Assertions.assertTrue(after.isAttacked(ChessGame.TeamColor.WHITE, getNewPosition(5, 4)));
+    }
+
+
+    /**
+     * @return for each square, the bitboard of the team's pieces that attack it
+     */
+    private static long[] attackers(ChessBoard board, ChessGame.TeamColor color) {
+        long[] attackers = new long[64];
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = board.getPiece(getNewPosition(row, col));
+                if (piece == null || piece.getTeamColor() != color) {
+                    continue;
+                }
+                long from = 1L << ((row - 1) * 8 + (col - 1));
+                int forward = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+                long targets = switch (piece.getPieceType()) {
+                    case KNIGHT -> steps(row, col, KNIGHT_STEPS);
+                    case KING -> steps(row, col, KING_STEPS);
+                    case PAWN -> steps(row, col, new int[][]{{forward, 1}, {forward, -1}});
+                    case ROOK -> rays(board, row, col, 0, 4);
+                    case BISHOP -> rays(board, row, col, 4, 8);
+                    case QUEEN -> rays(board, row, col, 0, 8);
+                };
+                for (int square = 0; square < 64; square++) {
+                    if ((targets & (1L << square)) != 0) {
+                        attackers[square] |= from;
+                    }
+                }
+            }
+        }
+        return attackers;
+    }
+
+    private static long steps(int row, int col, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                attacks |= 1L << ((r - 1) * 8 + (c - 1));
+            }
+        }
+        return attacks;
+    }
+
+    private static long rays(ChessBoard board, int row, int col, int firstDirection, int lastDirection) {
+        int[][] directions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        long attacks = 0L;
+        for (int d = firstDirection; d < lastDirection; d++) {
+            int r = row + directions[d][0];
+            int c = col + directions[d][1];
+            while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                attacks |= 1L << ((r - 1) * 8 + (c - 1));
+                if (board.getPiece(getNewPosition(r, c)) != null) {
+                    break;
+                }
+                r += directions[d][0];
+                c += directions[d][1];
+            }
+        }
+        return attacks;
+    }
+}
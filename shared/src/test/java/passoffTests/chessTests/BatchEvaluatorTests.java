@@ -0,0 +1,143 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static passoffTests.TestFactory.*;
+
+public class BatchEvaluatorTests {
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {-1, -2}, {1, -2}, {2, -1}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+
+    @Test
+    @DisplayName("Matches Per Game Answers")
+    public void matchesPerGameAnswers() {
+        // An odd size leaves a tail for the scalar path even when lanes are used
+        List<ChessGame> games = randomGames(301);
+        var batch = new PositionBatch(games.size());
+        games.forEach(batch::add);
+
+        var whiteAttacks = new long[batch.size()];
+        var blackMobility = new int[batch.size()];
+        var inCheck = new boolean[batch.size()];
+        BatchEvaluator.attacks(batch, ChessGame.TeamColor.WHITE, whiteAttacks);
+        BatchEvaluator.mobility(batch, ChessGame.TeamColor.BLACK, blackMobility);
+        BatchEvaluator.inCheck(batch, inCheck);
+
+        for (int i = 0; i < games.size(); i++) {
+            var game = games.get(i);
+            Assertions.assertEquals(game.isInCheck(game.getTeamTurn()), inCheck[i], game.toFen());
+            Assertions.assertEquals(attacks(game.getBoard(), ChessGame.TeamColor.WHITE), whiteAttacks[i], game.toFen());
+            Assertions.assertEquals(mobility(game.getBoard(), ChessGame.TeamColor.BLACK), blackMobility[i], game.toFen());
+        }
+    }
+
+
+    @Test
+    @DisplayName("Batch Is Bounded")
+    public void batchIsBounded() {
+        var batch = new PositionBatch(1);
+        batch.add(getNewGame());
+        Assertions.assertThrows(IllegalStateException.class, () -> batch.add(getNewGame()));
+
+        batch.clear();
+        batch.add(getNewGame());
+        var mobility = new int[1];
+        BatchEvaluator.mobility(batch, ChessGame.TeamColor.WHITE, mobility);
+        Assertions.assertEquals(20, mobility[0]);
+    }
+
+
+    private static List<ChessGame> randomGames(int count) {
+        var random = new Random(19);
+        var moves = new MoveList();
+        List<ChessGame> games = new ArrayList<>(count);
+        var game = getNewGame();
+        while (games.size() < count) {
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                game = getNewGame();
+                continue;
+            }
+            game.make(moves.get(random.nextInt(moves.size())));
+            games.add(ChessGame.fromFen(game.toFen()));
+        }
+        return games;
+    }
+
+    private static int mobility(ChessBoard board, ChessGame.TeamColor color) {
+        int count = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = board.getPiece(getNewPosition(row, col));
+                if (piece != null && piece.getTeamColor() == color) {
+                    Set<ChessPosition> targets = new HashSet<>();
+                    piece.pieceMoves(board, getNewPosition(row, col)).forEach(move -> targets.add(move.getEndPosition()));
+                    count += targets.size();
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long attacks(ChessBoard board, ChessGame.TeamColor color) {
+        long attacks = 0L;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = board.getPiece(getNewPosition(row, col));
+                if (piece == null || piece.getTeamColor() != color) {
+                    continue;
+                }
+                switch (piece.getPieceType()) {
+                    case KNIGHT -> attacks |= steps(row, col, KNIGHT_STEPS);
+                    case KING -> attacks |= steps(row, col, KING_STEPS);
+                    case PAWN -> {
+                        int forward = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+                        attacks |= steps(row, col, new int[][]{{forward, 1}, {forward, -1}});
+                    }
+                    case ROOK -> attacks |= rays(board, row, col, 0, 4);
+                    case BISHOP -> attacks |= rays(board, row, col, 4, 8);
+                    case QUEEN -> attacks |= rays(board, row, col, 0, 8);
+                }
+            }
+        }
+        return attacks;
+    }
+
+    private static long steps(int row, int col, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                attacks |= 1L << ((r - 1) * 8 + (c - 1));
+            }
+        }
+        return attacks;
+    }
+
+    private static long rays(ChessBoard board, int row, int col, int firstDirection, int lastDirection) {
+        int[][] directions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+        long attacks = 0L;
+        for (int d = firstDirection; d < lastDirection; d++) {
+            int r = row + directions[d][0];
+            int c = col + directions[d][1];
+            while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                attacks |= 1L << ((r - 1) * 8 + (c - 1));
+                if (board.getPiece(getNewPosition(r, c)) != null) {
+                    break;
+                }
+                r += directions[d][0];
+                c += directions[d][1];
+            }
+        }
+        return attacks;
+    }
+}
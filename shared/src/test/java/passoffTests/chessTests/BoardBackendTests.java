@@ -0,0 +1,88 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class BoardBackendTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"
+    })
+    @DisplayName("Backends Agree")
+    public void backendsAgree(String fen) {
+        var bitboard = onBackend(fen, ChessBoard.Backend.BITBOARD);
+        var mailbox = onBackend(fen, ChessBoard.Backend.MAILBOX);
+        Assertions.assertEquals(ChessBoard.Backend.MAILBOX, mailbox.getBoard().getBackend());
+        Assertions.assertEquals(bitboard, mailbox);
+        Assertions.assertEquals(Perft.perft(bitboard, 3), Perft.perft(mailbox, 3), fen);
+
+        var random = new Random(fen.hashCode());
+        var moves = new MoveList();
+        for (int ply = 0; ply < 200; ply++) {
+            moves.clear();
+            bitboard.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            bitboard.make(move);
+            mailbox.make(move);
+            Assertions.assertEquals(bitboard.toFen(), mailbox.toFen());
+            Assertions.assertEquals(bitboard.zobristKey(), mailbox.zobristKey());
+            for (var color : ChessGame.TeamColor.values()) {
+                Assertions.assertEquals(bitboard.getBoard().getOccupancy(color), mailbox.getBoard().getOccupancy(color));
+                Assertions.assertEquals(bitboard.getBoard().getKingPosition(color), mailbox.getBoard().getKingPosition(color));
+                Assertions.assertEquals(bitboard.isInCheck(color), mailbox.isInCheck(color));
+            }
+        }
+    }
+
+
+    @Test
+    @DisplayName("Json Round Trip")
+    public void jsonRoundTrip() {
+        var gson = new Gson();
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String json = gson.toJson(game);
+        Assertions.assertTrue(json.contains("\"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R\""), json);
+
+        var copy = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertEquals(game.legalMoves().size(), copy.legalMoves().size());
+    }
+
+
+    @Test
+    @DisplayName("Default Follows Property")
+    public void defaultFollowsProperty() {
+        var expected = ChessBoard.Backend.valueOf(System.getProperty("chess.board.backend", "bitboard").toUpperCase(Locale.ROOT));
+        Assertions.assertEquals(expected, new ChessBoard().getBackend());
+        Assertions.assertEquals(expected, ChessGame.fromFen("8/8/8/8/8/8/8/K6k w - - 0 1").getBoard().getBackend());
+    }
+
+
+    private static ChessGame onBackend(String fen, ChessBoard.Backend backend) {
+        var game = ChessGame.fromFen(fen);
+        var board = new ChessBoard(backend);
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var position = getNewPosition(row, col);
+                board.addPiece(position, game.getBoard().getPiece(position));
+            }
+        }
+        game.setBoard(board);
+        return game;
+    }
+}
@@ -0,0 +1,44 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import static passoffTests.TestFactory.*;
+
+public class BoardSnapshotTests {
+
+    @Test
+    @DisplayName("Unaffected By Later Moves")
+    public void unaffectedByLaterMoves() throws InvalidMoveException {
+        var game = getNewGame();
+        var before = game.getBoard().snapshot();
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+
+        Assertions.assertEquals(getNewPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                before.getPiece(getNewPosition(2, 5)));
+        Assertions.assertNull(before.getPiece(getNewPosition(4, 5)));
+        Assertions.assertNotEquals(before, game.getBoard().snapshot());
+
+        game.unmake();
+        Assertions.assertEquals(before, game.getBoard().snapshot());
+        Assertions.assertEquals(before.hashCode(), game.getBoard().snapshot().hashCode());
+    }
+
+
+    @Test
+    @DisplayName("Converts Back To Board")
+    public void convertsBackToBoard() {
+        var board = ChessBoard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        var snapshot = board.snapshot();
+        var copy = snapshot.toBoard();
+
+        Assertions.assertEquals(board, copy);
+        Assertions.assertEquals(board.zobristKey(), copy.zobristKey());
+        Assertions.assertEquals(board.getOccupancy(), snapshot.getOccupancy());
+        Assertions.assertEquals(board.getOccupancy(ChessGame.TeamColor.BLACK),
+                snapshot.getOccupancy(ChessGame.TeamColor.BLACK));
+
+        copy.addPiece(getNewPosition(4, 4), null);
+        Assertions.assertEquals(snapshot, board.snapshot(), "Changing the copy changed the snapshot");
+    }
+}
@@ -45,4 +45,22 @@ public class ChessBoardTests {
         Assertions.assertEquals(expectedBoard, actualBoard);
     }
 
+
+    @Test
+    @DisplayName("Off Board Positions Rejected")
+    public void offBoardPositionsRejected() {
+        var board = getNewBoard();
+        var rook = getNewPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        // (1,9) and (2,0) would otherwise land on a2 and a1
+        int[][] positions = {{1, 9}, {2, 0}, {0, 1}, {9, 1}, {-1, 4}, {4, -1}};
+        for (int[] position : positions) {
+            var offBoard = getNewPosition(position[0], position[1]);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> board.addPiece(offBoard, rook));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> board.getPiece(offBoard));
+        }
+        Assertions.assertEquals(getNewBoard(), board, "Rejected piece was placed on the board");
+
+        var game = getNewGame();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.validMoves(getNewPosition(1, 9)));
+    }
 }
@@ -0,0 +1,110 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class ChessCodecTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "8/8/8/8/8/8/8/8 b - - 87 140"
+    })
+    @DisplayName("Game Round Trip")
+    public void gameRoundTrip(String fen) {
+        var game = ChessGame.fromFen(fen);
+        byte[] bytes = ChessCodec.encode(game);
+        Assertions.assertEquals(ChessCodec.GAME_BYTES, bytes.length);
+
+        var decoded = ChessCodec.decodeGame(bytes);
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals(fen, decoded.toFen());
+        Assertions.assertEquals(game.zobristKey(), decoded.zobristKey());
+    }
+
+
+    @Test
+    @DisplayName("Streams Records Back To Back")
+    public void streamsRecords() {
+        var games = new ChessGame[50];
+        var random = new Random(11);
+        var moves = new MoveList();
+        var game = getNewGame();
+        var buffer = ByteBuffer.allocate(games.length * ChessCodec.GAME_BYTES);
+        for (int i = 0; i < games.length; i++) {
+            moves.clear();
+            game.legalMoves(moves);
+            game.make(moves.get(random.nextInt(moves.size())));
+            games[i] = ChessGame.fromFen(game.toFen());
+            ChessCodec.encode(game, buffer);
+        }
+        Assertions.assertFalse(buffer.hasRemaining());
+
+        buffer.flip();
+        for (ChessGame expected : games) {
+            Assertions.assertEquals(expected, ChessCodec.decodeGame(buffer));
+        }
+    }
+
+
+    @Test
+    @DisplayName("Board Round Trip")
+    public void boardRoundTrip() {
+        var board = getNewBoard();
+        board.resetBoard();
+        var buffer = ByteBuffer.allocate(ChessCodec.BOARD_BYTES);
+        ChessCodec.encode(board, buffer);
+
+        Assertions.assertEquals(board, ChessCodec.decodeBoard(buffer.flip()));
+    }
+
+
+    @Test
+    @DisplayName("Malformed Records Rejected")
+    public void malformedRecords() {
+        byte[] bytes = ChessCodec.encode(getNewGame());
+        bytes[5] = (byte) 0xDD;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessCodec.decodeGame(bytes));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessCodec.decodeGame(new byte[12]));
+    }
+
+
+    @Test
+    @DisplayName("Impossible En Passant Rejected")
+    public void impossibleEnPassantRejected() {
+        byte[] bytes = ChessCodec.encode(ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"));
+        var buffer = ByteBuffer.wrap(bytes);
+        long state = buffer.getLong(ChessCodec.BOARD_BYTES);
+        Assertions.assertNotNull(ChessCodec.decodeGame(bytes));
+
+        // f6 with black to move
+        buffer.putLong(ChessCodec.BOARD_BYTES, state | 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessCodec.decodeGame(bytes));
+        // f4 (square 29) with white to move
+        buffer.putLong(ChessCodec.BOARD_BYTES, (state & ~(0x7FL << 5)) | (29L << 5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessCodec.decodeGame(bytes));
+    }
+
+
+    @Test
+    @DisplayName("Round Trip After Turn Change")
+    public void roundTripAfterTurnChange() throws InvalidMoveException {
+        var game = ChessGame.fromFen("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1");
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        var decoded = ChessCodec.decodeGame(ChessCodec.encode(game));
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals("4k3/8/8/8/3pP3/8/8/4K3 w - - 0 1", decoded.toFen());
+        Assertions.assertEquals(game.zobristKey(), decoded.zobristKey());
+    }
+}
@@ -0,0 +1,61 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static passoffTests.TestFactory.*;
+
+public class ConcurrentReadTests {
+
+    @Test
+    @DisplayName("Parallel Readers Agree")
+    public void parallelReadersAgree() throws Exception {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        game.setMoveCache(new MoveCache(64));
+        String fen = game.toFen();
+        List<Set<ChessMove>> expected = allValidMoves(game);
+        GameStatus expectedStatus = game.status();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                readers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        if (!expected.equals(allValidMoves(game)) || !expectedStatus.equals(game.status())
+                                || game.isInCheckmate(ChessGame.TeamColor.BLACK)
+                                || game.isInStalemate(ChessGame.TeamColor.BLACK)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> reader : readers) {
+                Assertions.assertTrue(reader.get(), "A reader saw different moves or status");
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(fen, game.toFen(), "Reading changed the game");
+    }
+
+
+    private static List<Set<ChessMove>> allValidMoves(ChessGame game) {
+        List<Set<ChessMove>> moves = new ArrayList<>(64);
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                moves.add(new HashSet<>(game.validMoves(getNewPosition(row, col))));
+            }
+        }
+        return moves;
+    }
+}
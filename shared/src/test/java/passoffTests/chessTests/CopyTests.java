@@ -0,0 +1,92 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class CopyTests {
+
+    @Test
+    @DisplayName("Copy Is Independent")
+    public void copyIsIndependent() throws InvalidMoveException {
+        var game = getNewGame();
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        var copy = game.copy();
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertNotSame(game.getBoard(), copy.getBoard());
+
+        copy.makeMove(getNewMove(getNewPosition(7, 5), getNewPosition(5, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen(),
+                "Move on the copy changed the original");
+
+        // The copy takes the history along, so it can take back moves made before it was copied
+        copy.unmake();
+        copy.unmake();
+        Assertions.assertEquals(getNewGame(), copy);
+        Assertions.assertThrows(IllegalStateException.class, copy::unmake);
+    }
+
+
+    @Test
+    @DisplayName("Copy Keeps Repetitions")
+    public void copyKeepsRepetitions() throws InvalidMoveException {
+        var game = getNewGame();
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(getNewMove(getNewPosition(1, 7), getNewPosition(3, 6), null));
+            game.makeMove(getNewMove(getNewPosition(8, 7), getNewPosition(6, 6), null));
+            game.makeMove(getNewMove(getNewPosition(3, 6), getNewPosition(1, 7), null));
+            game.makeMove(getNewMove(getNewPosition(6, 6), getNewPosition(8, 7), null));
+        }
+        Assertions.assertTrue(game.isThreefoldRepetition());
+        Assertions.assertTrue(game.copy().isThreefoldRepetition());
+    }
+
+
+    @Test
+    @DisplayName("Copy Into Reuses Target")
+    public void copyIntoReusesTarget() {
+        var random = new Random(24);
+        var moves = new MoveList();
+        var game = getNewGame();
+        var target = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        var board = target.getBoard();
+        for (int ply = 0; ply < 300; ply++) {
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                game = getNewGame();
+                continue;
+            }
+            game.make(moves.get(random.nextInt(moves.size())));
+
+            game.copyInto(target);
+            Assertions.assertSame(board, target.getBoard());
+            Assertions.assertEquals(game.toFen(), target.toFen());
+            Assertions.assertEquals(game.zobristKey(), target.zobristKey());
+            Assertions.assertEquals(game.legalMoves().size(), target.legalMoves().size());
+            Assertions.assertEquals(game.status(), target.status());
+        }
+    }
+
+
+    @Test
+    @DisplayName("Board Copy Across Backends")
+    public void boardCopyAcrossBackends() {
+        var board = ChessBoard.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R");
+        var mailbox = new ChessBoard(ChessBoard.Backend.MAILBOX);
+        board.copyInto(mailbox);
+        Assertions.assertEquals(ChessBoard.Backend.MAILBOX, mailbox.getBackend());
+        Assertions.assertEquals(board, mailbox);
+        Assertions.assertEquals(board.zobristKey(), mailbox.zobristKey());
+
+        var copy = mailbox.copy();
+        Assertions.assertEquals(ChessBoard.Backend.MAILBOX, copy.getBackend());
+        copy.addPiece(getNewPosition(4, 5), null);
+        Assertions.assertNotEquals(mailbox, copy);
+        Assertions.assertEquals(board, mailbox);
+    }
+}
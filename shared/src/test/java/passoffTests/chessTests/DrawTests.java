@@ -0,0 +1,70 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import static passoffTests.TestFactory.*;
+
+public class DrawTests {
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = getNewGame();
+        shuffleKnights(game);
+        Assertions.assertFalse(game.isThreefoldRepetition(), "Position has only occurred twice");
+
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isThreefoldRepetition(), "Starting position occurred three times");
+
+        game.unmake();
+        Assertions.assertFalse(game.isThreefoldRepetition(), "Unmake did not drop the last position");
+    }
+
+
+    @Test
+    @DisplayName("Pawn Move Resets Repetition")
+    public void pawnMoveResetsRepetition() throws InvalidMoveException {
+        var game = getNewGame();
+        shuffleKnights(game);
+        game.makeMove(getNewMove(getNewPosition(2, 1), getNewPosition(3, 1), null));
+        game.makeMove(getNewMove(getNewPosition(7, 1), getNewPosition(6, 1), null));
+        shuffleKnights(game);
+
+        Assertions.assertFalse(game.isThreefoldRepetition(),
+                "Position has only occurred twice since the pawn moves");
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isThreefoldRepetition());
+    }
+
+
+    @Test
+    @DisplayName("Fifty Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        var game = ChessGame.fromFen("7k/8/8/8/8/8/8/R3K3 w Q - 99 70");
+        Assertions.assertFalse(game.isFiftyMoveDraw());
+
+        game.makeMove(getNewMove(getNewPosition(1, 1), getNewPosition(2, 1), null));
+        Assertions.assertTrue(game.isFiftyMoveDraw());
+        Assertions.assertFalse(game.isThreefoldRepetition());
+    }
+
+
+    @Test
+    @DisplayName("Checkmate Beats Fifty Move Rule")
+    public void checkmateBeatsFiftyMoveRule() throws InvalidMoveException {
+        var game = ChessGame.fromFen("7k/8/6K1/8/8/8/8/R7 w - - 99 70");
+        game.makeMove(getNewMove(getNewPosition(1, 1), getNewPosition(8, 1), null));
+
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(game.isFiftyMoveDraw());
+    }
+
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(getNewMove(getNewPosition(1, 7), getNewPosition(3, 6), null));
+        game.makeMove(getNewMove(getNewPosition(8, 7), getNewPosition(6, 6), null));
+        game.makeMove(getNewMove(getNewPosition(3, 6), getNewPosition(1, 7), null));
+        game.makeMove(getNewMove(getNewPosition(6, 6), getNewPosition(8, 7), null));
+    }
+}
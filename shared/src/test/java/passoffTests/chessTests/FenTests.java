@@ -0,0 +1,141 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static passoffTests.TestFactory.*;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        var board = getNewBoard();
+        board.resetBoard();
+
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", board.toFen());
+        Assertions.assertEquals(board, ChessBoard.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"));
+        Assertions.assertEquals(getNewGame(), ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    }
+
+
+    @Test
+    @DisplayName("Board Matches Placement")
+    public void boardMatchesPlacement() {
+        var game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1");
+
+        Assertions.assertEquals(loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """), game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 0 1", game.toFen());
+    }
+
+
+    @Test
+    @DisplayName("Round Trip After Moves")
+    public void roundTripAfterMoves() throws InvalidMoveException {
+        var game = getNewGame();
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        game.makeMove(getNewMove(getNewPosition(8, 7), getNewPosition(6, 6), null));
+
+        var copy = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.zobristKey(), copy.zobristKey());
+    }
+
+
+    @Test
+    @DisplayName("Tracks En Passant And Counters")
+    public void tracksEnPassant() throws InvalidMoveException {
+        var game = getNewGame();
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1", game.toFen());
+
+        game.makeMove(getNewMove(getNewPosition(7, 4), getNewPosition(5, 4), null));
+        game.makeMove(getNewMove(getNewPosition(4, 5), getNewPosition(5, 5), null));
+        game.makeMove(getNewMove(getNewPosition(7, 6), getNewPosition(5, 6), null));
+        Assertions.assertEquals("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3", game.toFen());
+
+        game.makeMove(getNewMove(getNewPosition(5, 5), getNewPosition(6, 6), null));
+        Assertions.assertEquals("rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3", game.toFen());
+
+        game.unmake();
+        Assertions.assertEquals("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3", game.toFen());
+    }
+
+
+    @Test
+    @DisplayName("En Passant Without A King")
+    public void enPassantWithoutKing() {
+        var game = ChessGame.fromFen("8/8/8/3pP3/8/8/8/N7 w - d6 0 1");
+        var knightMoves = game.validMoves(getNewPosition(1, 1));
+        Assertions.assertEquals(2, knightMoves.size(), "Moves from other squares leaked into " + knightMoves);
+
+        var pawnMoves = game.validMoves(getNewPosition(5, 5));
+        Assertions.assertTrue(pawnMoves.contains(getNewMove(getNewPosition(5, 5), getNewPosition(6, 4), null)));
+    }
+
+
+    @Test
+    @DisplayName("Turn Change Drops En Passant")
+    public void turnChangeDropsEnPassant() throws InvalidMoveException {
+        var game = ChessGame.fromFen("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1");
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        Assertions.assertEquals("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1", game.toFen());
+
+        // Naming the side already to move keeps the square
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals("4k3/8/8/8/3pP3/8/8/4K3 b - e3 0 1", game.toFen());
+
+        // Handing the move back to white leaves nobody who could capture en passant
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals("4k3/8/8/8/3pP3/8/8/4K3 w - - 0 1", game.toFen());
+        var copy = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.zobristKey(), copy.zobristKey());
+    }
+
+
+    @Test
+    @DisplayName("Tracks Castling")
+    public void tracksCastling() throws InvalidMoveException {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        game.makeMove(getNewMove(getNewPosition(1, 5), getNewPosition(1, 7), null));
+        Assertions.assertEquals("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R4RK1 b kq - 1 1", game.toFen());
+
+        game.makeMove(getNewMove(getNewPosition(8, 8), getNewPosition(8, 6), null));
+        Assertions.assertEquals("r3kr2/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R4RK1 w q - 2 2", game.toFen());
+        Assertions.assertEquals(game.zobristKey(), ChessGame.fromFen(game.toFen()).zobristKey());
+    }
+
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkz - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "4k3/8/8/8/8/8/3Pp3/4K3 w - e3 0 1",
+            "4k3/3pP3/8/8/8/8/8/4K3 b - e6 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"
+    })
+    @DisplayName("Malformed Records Rejected")
+    public void malformedRecords(String fen) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen));
+    }
+}
@@ -0,0 +1,49 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import static passoffTests.TestFactory.*;
+
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        var status = getNewGame().status();
+
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.WHITE, false, false, false, 20), status);
+    }
+
+
+    @Test
+    @DisplayName("Checkmate")
+    public void checkmate() throws InvalidMoveException {
+        var game = getNewGame();
+        game.makeMove(getNewMove(getNewPosition(2, 6), getNewPosition(3, 6), null));
+        game.makeMove(getNewMove(getNewPosition(7, 5), getNewPosition(5, 5), null));
+        game.makeMove(getNewMove(getNewPosition(2, 7), getNewPosition(4, 7), null));
+        game.makeMove(getNewMove(getNewPosition(8, 4), getNewPosition(4, 8), null));
+
+        var status = game.status();
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.WHITE, true, true, false, 0), status);
+        Assertions.assertSame(status, game.status(), "Unchanged position was evaluated again");
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+
+        game.unmake();
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.BLACK, false, false, false, 30), game.status());
+    }
+
+
+    @Test
+    @DisplayName("Board Edited Directly")
+    public void boardEditedDirectly() {
+        var game = ChessGame.fromFen("7k/8/8/8/8/8/8/K7 b - - 0 1");
+        Assertions.assertEquals(3, game.status().legalMoveCount());
+
+        game.getBoard().addPiece(getNewPosition(6, 7), getNewPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(new GameStatus(ChessGame.TeamColor.BLACK, false, false, true, 0), game.status());
+        Assertions.assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+}
@@ -0,0 +1,103 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class IsLegalTests {
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            null, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.KING, ChessPiece.PieceType.PAWN
+    };
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1",
+            "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1"
+    })
+    @DisplayName("Agrees With Move Generation")
+    public void agreesWithMoveGeneration(String fen) {
+        var random = new Random(fen.hashCode());
+        var game = ChessGame.fromFen(fen);
+        var moves = new MoveList();
+        for (int ply = 0; ply < 40; ply++) {
+            var legal = new HashSet<>(game.legalMoves());
+            if (legal.isEmpty()) {
+                break;
+            }
+            int accepted = 0;
+            for (int from = 0; from < 64; from++) {
+                for (int to = 0; to < 64; to++) {
+                    for (var promotion : PROMOTIONS) {
+                        var move = getNewMove(getNewPosition(from / 8 + 1, from % 8 + 1),
+                                getNewPosition(to / 8 + 1, to % 8 + 1), promotion);
+                        boolean isLegal = game.isLegal(move);
+                        Assertions.assertEquals(legal.contains(move), isLegal, move + " in " + game.toFen());
+                        accepted += isLegal ? 1 : 0;
+                    }
+                }
+            }
+            Assertions.assertEquals(legal.size(), accepted, game.toFen());
+
+            moves.clear();
+            game.legalMoves(moves);
+            game.make(moves.get(random.nextInt(moves.size())));
+        }
+    }
+
+
+    @Test
+    @DisplayName("Off Board Squares Rejected")
+    public void offBoardSquaresRejected() {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/R7/4K3 w - - 0 1");
+        String fen = game.toFen();
+        int[] rowsAndColumns = {-1, 0, 1, 2, 8, 9, 10};
+        for (int startRow : rowsAndColumns) {
+            for (int startCol : rowsAndColumns) {
+                for (int endRow : rowsAndColumns) {
+                    for (int endCol : rowsAndColumns) {
+                        boolean onBoard = startRow >= 1 && startRow <= 8 && startCol >= 1 && startCol <= 8
+                                && endRow >= 1 && endRow <= 8 && endCol >= 1 && endCol <= 8;
+                        if (onBoard) {
+                            continue;
+                        }
+                        var move = getNewMove(getNewPosition(startRow, startCol), getNewPosition(endRow, endCol), null);
+                        Assertions.assertFalse(game.isLegal(move), move.toString());
+                        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(move), move.toString());
+                        Assertions.assertEquals(fen, game.toFen(), "Rejected move changed the game");
+                    }
+                }
+            }
+        }
+        // The rook's file and rank, one step past the edge
+        Assertions.assertFalse(game.isLegal(getNewMove(getNewPosition(2, 1), getNewPosition(9, 1), null)));
+        Assertions.assertFalse(game.isLegal(getNewMove(getNewPosition(2, 1), getNewPosition(2, 9), null)));
+    }
+
+
+    @Test
+    @DisplayName("Make Move Uses It")
+    public void makeMoveUsesIt() throws InvalidMoveException {
+        var game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        var castle = getNewMove(getNewPosition(1, 5), getNewPosition(1, 7), null);
+        Assertions.assertTrue(game.isLegal(castle));
+        game.makeMove(castle);
+        Assertions.assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 1 1", game.toFen());
+
+        // White's move is no longer legal once it is black's turn
+        Assertions.assertFalse(game.isLegal(getNewMove(getNewPosition(1, 1), getNewPosition(2, 1), null)));
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(getNewMove(getNewPosition(8, 5), getNewPosition(8, 8), null)));
+        Assertions.assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 1 1", game.toFen(), "Rejected move changed the game");
+    }
+}
@@ -0,0 +1,84 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class MoveCacheTests {
+
+    @Test
+    @DisplayName("Shared Between Games")
+    public void sharedBetweenGames() {
+        var cache = new MoveCache(1024);
+        var first = getNewGame();
+        var second = getNewGame();
+        first.setMoveCache(cache);
+        second.setMoveCache(cache);
+
+        var knight = getNewPosition(1, 2);
+        var expected = new HashSet<>(first.validMoves(knight));
+        Assertions.assertEquals(0, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+
+        Assertions.assertEquals(expected, new HashSet<>(second.validMoves(knight)));
+        Assertions.assertEquals(1, cache.hits());
+        Assertions.assertEquals(1, cache.misses());
+    }
+
+
+    @Test
+    @DisplayName("Bounded Size")
+    public void boundedSize() {
+        var cache = new MoveCache(5);
+        Assertions.assertEquals(8, cache.capacity());
+
+        var game = getNewGame();
+        game.setMoveCache(cache);
+        for (int col = 1; col <= 8; col++) {
+            game.validMoves(getNewPosition(2, col));
+            game.validMoves(getNewPosition(7, col));
+        }
+        Assertions.assertEquals(16, cache.misses());
+
+        cache.clear();
+        Assertions.assertEquals(0, cache.misses());
+    }
+
+
+    @Test
+    @DisplayName("Matches Uncached Moves")
+    public void matchesUncachedMoves() {
+        var cache = new MoveCache(256);
+        var cached = getNewGame();
+        var uncached = getNewGame();
+        cached.setMoveCache(cache);
+        var random = new Random(7);
+        var moves = new MoveList();
+
+        for (int ply = 0; ply < 400; ply++) {
+            moves.clear();
+            uncached.legalMoves(moves);
+            if (moves.isEmpty()) {
+                cached = getNewGame();
+                cached.setMoveCache(cache);
+                uncached = getNewGame();
+                continue;
+            }
+            for (int row = 1; row <= 8; row++) {
+                for (int col = 1; col <= 8; col++) {
+                    var position = getNewPosition(row, col);
+                    Assertions.assertEquals(new HashSet<>(uncached.validMoves(position)),
+                            new HashSet<>(cached.validMoves(position)));
+                }
+            }
+            int move = moves.get(random.nextInt(moves.size()));
+            cached.make(move);
+            uncached.make(move);
+        }
+        Assertions.assertTrue(cache.hits() > 0);
+    }
+}
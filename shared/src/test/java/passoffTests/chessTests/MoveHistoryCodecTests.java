@@ -0,0 +1,69 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class MoveHistoryCodecTests {
+
+    @Test
+    @DisplayName("Random Games Round Trip")
+    public void randomGamesRoundTrip() {
+        var random = new Random(5);
+        var moves = new MoveList();
+        for (int round = 0; round < 50; round++) {
+            var game = getNewGame();
+            List<ChessMove> played = new ArrayList<>();
+            for (int ply = 0; ply < 150; ply++) {
+                moves.clear();
+                game.legalMoves(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int move = moves.get(random.nextInt(moves.size()));
+                played.add(PackedMove.toChessMove(move));
+                game.make(move);
+            }
+
+            byte[] history = MoveHistoryCodec.encode(getNewGame(), played);
+            Assertions.assertEquals(played.size(), history.length, "Expected one byte per move");
+
+            var replayed = getNewGame();
+            MoveHistoryCodec.decode(history, replayed);
+            Assertions.assertEquals(game.toFen(), replayed.toFen());
+        }
+    }
+
+
+    @Test
+    @DisplayName("Start Position Unchanged")
+    public void startPositionUnchanged() {
+        var start = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String fen = start.toFen();
+        byte[] history = MoveHistoryCodec.encode(start, List.of(
+                getNewMove(getNewPosition(1, 5), getNewPosition(1, 7), null),
+                getNewMove(getNewPosition(8, 5), getNewPosition(8, 3), null)));
+
+        Assertions.assertEquals(fen, start.toFen());
+        MoveHistoryCodec.decode(history, start);
+        Assertions.assertEquals("2kr3r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R4RK1 w - - 2 2", start.toFen());
+    }
+
+
+    @Test
+    @DisplayName("Illegal Moves Rejected")
+    public void illegalMovesRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MoveHistoryCodec.encode(getNewGame(),
+                List.of(getNewMove(getNewPosition(2, 5), getNewPosition(5, 5), null))));
+        // (3,13) is off the board, but would otherwise be read as e4
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MoveHistoryCodec.encode(getNewGame(),
+                List.of(getNewMove(getNewPosition(2, 5), getNewPosition(3, 13), null))));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MoveHistoryCodec.decode(new byte[]{(byte) 20}, getNewGame()));
+    }
+}
@@ -0,0 +1,186 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static passoffTests.TestFactory.*;
+
+public class MoveHistoryTests {
+
+    @Test
+    @DisplayName("Undo And Redo")
+    public void undoAndRedo() throws InvalidMoveException {
+        // Castling, a capture, en passant and a promotion
+        var game = ChessGame.fromFen("r3k2r/1P6/8/8/5p2/8/4P3/R3K2R w KQkq - 0 1");
+        var fens = new ArrayList<String>();
+        fens.add(game.toFen());
+        ChessMove[] moves = {
+                getNewMove(getNewPosition(1, 5), getNewPosition(1, 7), null),
+                getNewMove(getNewPosition(8, 8), getNewPosition(7, 8), null),
+                getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null),
+                getNewMove(getNewPosition(4, 6), getNewPosition(3, 5), null),
+                getNewMove(getNewPosition(7, 2), getNewPosition(8, 1), ChessPiece.PieceType.QUEEN),
+                getNewMove(getNewPosition(8, 5), getNewPosition(7, 5), null)
+        };
+        for (var move : moves) {
+            game.makeMove(move);
+            fens.add(game.toFen());
+        }
+        Assertions.assertEquals(List.of(moves), game.getMoveHistory());
+
+        for (int ply = moves.length - 1; ply >= 0; ply--) {
+            game.undo();
+            Assertions.assertEquals(fens.get(ply), game.toFen());
+            Assertions.assertEquals(ChessGame.fromFen(fens.get(ply)).zobristKey(), game.zobristKey());
+        }
+        Assertions.assertFalse(game.canUndo());
+        Assertions.assertThrows(IllegalStateException.class, game::undo);
+
+        for (int ply = 1; ply <= moves.length; ply++) {
+            game.redo();
+            Assertions.assertEquals(fens.get(ply), game.toFen());
+            Assertions.assertEquals(ply, game.getPly());
+        }
+        Assertions.assertFalse(game.canRedo());
+        Assertions.assertThrows(IllegalStateException.class, game::redo);
+    }
+
+
+    @Test
+    @DisplayName("New Move Drops Redo")
+    public void newMoveDropsRedo() throws InvalidMoveException {
+        var game = getNewGame();
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        game.makeMove(getNewMove(getNewPosition(7, 5), getNewPosition(5, 5), null));
+        game.undo();
+
+        // Playing the move that was taken back is the same as redoing it
+        game.makeMove(getNewMove(getNewPosition(7, 5), getNewPosition(5, 5), null));
+        game.undo();
+        Assertions.assertTrue(game.canRedo());
+
+        game.makeMove(getNewMove(getNewPosition(7, 4), getNewPosition(5, 4), null));
+        Assertions.assertFalse(game.canRedo());
+        Assertions.assertEquals(2, game.getMoveHistory().size());
+        Assertions.assertEquals(getNewPosition(7, 4), game.getMoveHistory().get(1).getStartPosition());
+    }
+
+
+    @Test
+    @DisplayName("Go To Any Ply")
+    public void goToAnyPly() throws InvalidMoveException {
+        var random = new Random(25);
+        var moves = new MoveList();
+        var game = getNewGame();
+        var fens = new ArrayList<String>();
+        var repetitions = new ArrayList<Boolean>();
+        fens.add(game.toFen());
+        repetitions.add(false);
+        for (int ply = 0; ply < 300; ply++) {
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(PackedMove.toChessMove(moves.get(random.nextInt(moves.size()))));
+            fens.add(game.toFen());
+            repetitions.add(game.isThreefoldRepetition());
+        }
+
+        for (int i = 0; i < 200; i++) {
+            int ply = random.nextInt(fens.size());
+            game.goToPly(ply);
+            Assertions.assertEquals(ply, game.getPly());
+            Assertions.assertEquals(fens.get(ply), game.toFen());
+            Assertions.assertEquals(ChessGame.fromFen(fens.get(ply)).zobristKey(), game.zobristKey());
+            Assertions.assertEquals(repetitions.get(ply), game.isThreefoldRepetition(), fens.get(ply));
+        }
+        game.goToPly(0);
+        Assertions.assertEquals(getNewGame(), game);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.goToPly(fens.size()));
+    }
+
+
+    @Test
+    @DisplayName("Copy Keeps History")
+    public void copyKeepsHistory() throws InvalidMoveException {
+        var game = getNewGame();
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        game.makeMove(getNewMove(getNewPosition(7, 5), getNewPosition(5, 5), null));
+        game.undo();
+
+        var copy = game.copy();
+        Assertions.assertTrue(copy.canRedo());
+        copy.redo();
+        copy.goToPly(0);
+        Assertions.assertEquals(getNewGame(), copy);
+        Assertions.assertEquals(1, game.getPly(), "Moving through the copy changed the original");
+    }
+
+
+    @Test
+    @DisplayName("Search Keeps Redo Line")
+    public void searchKeepsRedoLine() throws InvalidMoveException {
+        var game = getNewGame();
+        var e4 = getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null);
+        var e5 = getNewMove(getNewPosition(7, 5), getNewPosition(5, 5), null);
+        var nf3 = getNewMove(getNewPosition(1, 7), getNewPosition(3, 6), null);
+        game.makeMove(e4);
+        game.makeMove(e5);
+        game.makeMove(nf3);
+        game.goToPly(1);
+
+        Assertions.assertEquals(600, Perft.perft(game, 2));
+        game.validMoves(getNewPosition(7, 7));
+        game.isLegal(getNewMove(getNewPosition(7, 4), getNewPosition(5, 4), null));
+        Assertions.assertEquals(List.of(e4, e5, nf3), game.getMoveHistory());
+
+        game.redo();
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", game.toFen());
+        game.goToPly(3);
+        Assertions.assertEquals(List.of(e4, e5, nf3), game.getMoveHistory());
+
+        // Taking back below the redo line and playing elsewhere leaves nothing to redo
+        game.goToPly(1);
+        game.unmake();
+        game.make(PackedMove.of(11, 27, 0, PackedMove.DOUBLE_PUSH));
+        Assertions.assertFalse(game.canRedo());
+        Assertions.assertThrows(IllegalStateException.class, game::redo);
+    }
+
+
+    @Test
+    @DisplayName("Copy Builds Checkpoints")
+    public void copyBuildsCheckpoints() throws InvalidMoveException {
+        var random = new Random(40);
+        var moves = new MoveList();
+        var game = getNewGame();
+        var fens = new ArrayList<String>();
+        fens.add(game.toFen());
+        ChessGame copy = null;
+        for (int ply = 0; ply < 340; ply++) {
+            if (ply == 40) {
+                copy = game.copy();
+                game = copy;
+            }
+            moves.clear();
+            game.legalMoves(moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.makeMove(PackedMove.toChessMove(moves.get(random.nextInt(moves.size()))));
+            fens.add(game.toFen());
+        }
+        Assertions.assertNotNull(copy);
+
+        for (int i = 0; i < 100; i++) {
+            int ply = random.nextInt(fens.size());
+            copy.goToPly(ply);
+            Assertions.assertEquals(fens.get(ply), copy.toFen());
+        }
+    }
+}
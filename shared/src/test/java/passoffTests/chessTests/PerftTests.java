@@ -0,0 +1,234 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static passoffTests.TestFactory.*;
+
+/**
+ * Known perft node counts for standard positions. Any change to move
+ * generation has to keep these exact.
+ */
+public class PerftTests {
+
+    @ParameterizedTest
+    @CsvSource({"1, 20", "2, 400", "3, 8902", "4, 197281", "5, 4865609"})
+    @DisplayName("Starting Position")
+    public void startingPosition(int depth, long nodes) {
+        Assertions.assertEquals(nodes, Perft.perft(getNewGame(), depth));
+    }
+
+
+    @Test
+    @DisplayName("Parallel Matches Sequential")
+    public void parallelDivide() {
+        var game = getNewGame();
+        Map<String, Long> sequential = Perft.divide(game, 3, false);
+        Map<String, Long> parallel = Perft.divide(game, 3, true);
+
+        Assertions.assertEquals(20, sequential.size(), "Wrong number of root moves");
+        Assertions.assertEquals(sequential, parallel);
+        Assertions.assertEquals(600L, sequential.get("e2e4"));
+        Assertions.assertEquals(8902L, Perft.parallelPerft(game, 3));
+        Assertions.assertEquals(getNewGame(), game, "Perft changed the game it counted");
+    }
+
+
+    @ParameterizedTest(name = "{0} depth {2}")
+    @CsvSource({
+            "Kiwipete, r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1, 3, 97862",
+            "Position 3, 8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1, 5, 674624",
+            "Position 4, r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1, 4, 422333",
+            "Position 5, rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8, 3, 62379",
+            "Position 6, r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10, 3, 89890",
+            "En Passant Uncovers Check, 3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1, 6, 1134888",
+            "En Passant Captures Checker, 8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1, 6, 1440467",
+            "Short Castling, 5k2/8/8/8/8/8/8/4K2R w K - 0 1, 6, 661072",
+            "Long Castling, 3k4/8/8/8/8/8/8/R3K3 w Q - 0 1, 6, 803711",
+            "Castling Rights Lost, r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1, 4, 1274206",
+            "Castling Prevented, r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1, 4, 1720476"
+    })
+    @DisplayName("Castling And En Passant")
+    public void castlingAndEnPassant(String name, String fen, int depth, long nodes) {
+        var game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(nodes, Perft.perft(game, depth));
+        Assertions.assertEquals(fen, game.toFen(), "Perft changed the game it counted");
+    }
+
+
+    @Test
+    @DisplayName("Kiwipete Parallel")
+    public void kiwipeteParallel() {
+        var game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Map<String, Long> divide = Perft.divide(game, 3, true);
+
+        Assertions.assertEquals(48, divide.size(), "Wrong number of root moves");
+        Assertions.assertEquals(2039L, Perft.perft(game, 2));
+        Assertions.assertEquals(97862L, divide.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(4085603L, Perft.parallelPerft(game, 4));
+    }
+
+
+    @Test
+    @DisplayName("Promotion Gives Check")
+    public void promotionGivesCheck() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | |K| | |r| | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(3821001L, Perft.parallelPerft(game, 6));
+    }
+
+
+    @Test
+    @DisplayName("Discovered Check")
+    public void discoveredCheck() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | |P| | |K| | | |
+                | | | | | | | | |
+                | | |n| | | | | |
+                | |q| | | | | | |
+                | | | | | | | | |
+                | | | | | |k| | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(1004658L, Perft.parallelPerft(game, 5));
+    }
+
+
+    @Test
+    @DisplayName("Underpromotion Gives Check")
+    public void underpromotionGivesCheck() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | |P| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(217342L, Perft.perft(game, 6));
+    }
+
+
+    @Test
+    @DisplayName("Promote Out Of Check")
+    public void promoteOutOfCheck() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                |P| |k| | | | | |
+                |K| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(92683L, Perft.perft(game, 6));
+    }
+
+
+    @Test
+    @DisplayName("Self Stalemate")
+    public void selfStalemate() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                |K| |k| | | | | |
+                | | | | | | | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(2217L, Perft.perft(game, 6));
+    }
+
+
+    @Test
+    @DisplayName("Stalemate And Checkmate")
+    public void stalemateAndCheckmate() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                |k| |P| | | | | |
+                | | | | | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(567584L, Perft.parallelPerft(game, 7));
+    }
+
+
+    @Test
+    @DisplayName("Double Check")
+    public void doubleCheck() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |k| | | | | |
+                | | | | | |q| | |
+                | | | | | |n| | |
+                | | | | | | | | |
+                | | | | | |K| | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(23527L, Perft.perft(game, 4));
+    }
+
+
+    @Test
+    @DisplayName("Rook And Pawn Endgame")
+    public void rookAndPawnEndgame() {
+        var game = getNewGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(191L, Perft.perft(game, 2));
+    }
+}
@@ -0,0 +1,45 @@
+package passoffTests.chessTests;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static passoffTests.TestFactory.*;
+
+public class PiecePositionTests {
+
+    @Test
+    @DisplayName("Follow The Board")
+    public void followTheBoard() throws InvalidMoveException {
+        var game = getNewGame();
+        var board = game.getBoard();
+        Assertions.assertEquals(16, board.getPieceCount(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(getNewPosition(1, 1), board.getPiecePositions(ChessGame.TeamColor.WHITE).get(0));
+        Assertions.assertEquals(getNewPosition(8, 5), board.getKingPosition(ChessGame.TeamColor.BLACK));
+
+        game.makeMove(getNewMove(getNewPosition(2, 5), getNewPosition(4, 5), null));
+        game.makeMove(getNewMove(getNewPosition(7, 4), getNewPosition(5, 4), null));
+        game.makeMove(getNewMove(getNewPosition(4, 5), getNewPosition(5, 4), null));
+        Assertions.assertEquals(15, board.getPieceCount(ChessGame.TeamColor.BLACK));
+        Assertions.assertTrue(board.getPiecePositions(ChessGame.TeamColor.WHITE).contains(getNewPosition(5, 4)));
+        Assertions.assertFalse(board.getPiecePositions(ChessGame.TeamColor.WHITE).contains(getNewPosition(2, 5)));
+    }
+
+
+    @Test
+    @DisplayName("Endgame")
+    public void endgame() {
+        var board = getNewBoard();
+        board.addPiece(getNewPosition(1, 1), getNewPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(getNewPosition(8, 8), getNewPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(getNewPosition(7, 7), getNewPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(List.of(getNewPosition(1, 1), getNewPosition(7, 7)),
+                board.getPiecePositions(ChessGame.TeamColor.WHITE));
+
+        board.addPiece(getNewPosition(8, 8), null);
+        Assertions.assertNull(board.getKingPosition(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(0, board.getPieceCount(ChessGame.TeamColor.BLACK));
+        Assertions.assertTrue(board.getPiecePositions(ChessGame.TeamColor.BLACK).isEmpty());
+    }
+}